@@ -0,0 +1,73 @@
+package com.github.osndok.piemenu;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long it takes to derive the hue & colors of a new wedge, for each of the colorization schemes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public
+class ColorizerBenchmark
+{
+	@Param({"DISTINCT_HUES", "GRADIENT", "LABEL_HASH"})
+	Colorizer colorizer;
+
+	@Param({"8", "24", "100"})
+	int entryCount;
+
+	private
+	PieMenu<String> pieMenu;
+
+	private
+	List<String> labels;
+
+	private
+	int labelIndex;
+
+	@Setup
+	public
+	void setUp()
+	{
+		System.setProperty("java.awt.headless", "true");
+
+		labels=PieMenuBenchmark.createLabels(entryCount);
+		pieMenu=new PieMenu<String>(labels);
+		pieMenu.setColorizer(colorizer);
+	}
+
+	@Benchmark
+	public
+	Color colorWedge()
+	{
+		final
+		String label=labels.get(labelIndex);
+
+		labelIndex=(labelIndex+1)%entryCount;
+
+		final
+		float hue=pieMenu.createHue(label);
+
+		WedgePalette.getTextColor(hue);
+
+		return WedgePalette.getBackgroundColor(hue);
+	}
+}
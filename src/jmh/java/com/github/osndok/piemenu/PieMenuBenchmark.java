@@ -0,0 +1,218 @@
+package com.github.osndok.piemenu;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The baseline against which performance changes are judged: painting (from cache, and after a model change),
+ * computing the layout, choosing a label width, choosing quadrants, and hit-testing the mouse position... each for a
+ * range of menu sizes & font sizes.
+ *
+ * Run with: mvn -Pbenchmarks test-compile exec:exec [-Djmh.args="PieMenuBenchmark.paint -prof gc"]
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public
+class PieMenuBenchmark
+{
+	private static final
+	int NUM_HIT_POINTS = 1024;
+
+	@Param({"8", "24", "100"})
+	int entryCount;
+
+	@Param({"12", "24"})
+	int fontSize;
+
+	private
+	DefaultListModel<String> listModel;
+
+	private
+	PieMenu<String> pieMenu;
+
+	private
+	BufferedImage image;
+
+	private
+	Graphics2D graphics;
+
+	private
+	FontMetrics fontMetrics;
+
+	private
+	String[] labels;
+
+	private
+	PieMenuLayout layout;
+
+	private
+	double[] hitX;
+
+	private
+	double[] hitY;
+
+	private
+	int hitIndex;
+
+	private
+	int modelChanges;
+
+	@Setup(Level.Trial)
+	public
+	void setUp()
+	{
+		System.setProperty("java.awt.headless", "true");
+
+		final
+		List<String> entries=createLabels(entryCount);
+
+		final
+		Font font=new Font("Dialog", Font.PLAIN, fontSize);
+
+		labels=entries.toArray(new String[entries.size()]);
+
+		//NB: no center, so that the (queued) bounds updates on the EDT will not compete with the benchmark thread.
+		listModel=new DefaultListModel<String>();
+		{
+			for (String entry : entries)
+			{
+				listModel.addElement(entry);
+			}
+		}
+
+		pieMenu=new PieMenu<String>(listModel);
+		pieMenu.setFont(font);
+
+		fontMetrics=pieMenu.getFontMetrics(font);
+		layout=new PieMenuLayout(labels, fontMetrics);
+
+		image=new BufferedImage(layout.getSize(), layout.getSize(), BufferedImage.TYPE_INT_ARGB);
+		graphics=image.createGraphics();
+		graphics.setFont(font);
+
+		final
+		Random random=new Random(entryCount);
+
+		hitX=new double[NUM_HIT_POINTS];
+		hitY=new double[NUM_HIT_POINTS];
+
+		for (int i=0; i<NUM_HIT_POINTS; i++)
+		{
+			hitX[i]=random.nextDouble()*layout.getSize();
+			hitY[i]=random.nextDouble()*layout.getSize();
+		}
+
+		//Prime the caches, so that 'paint' measures the steady state.
+		pieMenu.paint(graphics);
+	}
+
+	@TearDown(Level.Trial)
+	public
+	void tearDown()
+	{
+		graphics.dispose();
+	}
+
+	static
+	List<String> createLabels(int count)
+	{
+		final
+		List<String> retval=new ArrayList<String>(count);
+		{
+			final
+			List<String> words=Arrays.asList("Copy", "Paste", "Cut", "Select All", "Find", "Replace", "Undo",
+												  "Redo", "Open Recent File", "Save", "Close", "Print...");
+
+			for (int i=0; i<count; i++)
+			{
+				retval.add(words.get(i%words.size())+" "+i);
+			}
+		}
+
+		return retval;
+	}
+
+	@Benchmark
+	public
+	BufferedImage paint()
+	{
+		pieMenu.paint(graphics);
+		return image;
+	}
+
+	@Benchmark
+	public
+	BufferedImage paintAfterModelChange()
+	{
+		//NB: a real change (of one label, back & forth), which is relaid out & redrawn rather than found in a cache.
+		final
+		int i=(modelChanges++)%entryCount;
+
+		listModel.set(i, (listModel.get(i).equals(labels[i]) ? labels[i]+"*" : labels[i]));
+		pieMenu.paint(graphics);
+		return image;
+	}
+
+	@Benchmark
+	public
+	PieMenuLayout computeLayout()
+	{
+		return new PieMenuLayout(labels, fontMetrics);
+	}
+
+	@Benchmark
+	public
+	int optimizeLabelWidth()
+	{
+		return new BasicTableWidthOptimizer(fontMetrics).getPixelsWide(Arrays.asList(labels));
+	}
+
+	@Benchmark
+	public
+	PieMenuQuadrant computeQuadrants()
+	{
+		PieMenuQuadrant retval=null;
+
+		for (int i=0; i<entryCount; i++)
+		{
+			retval=PieMenuLayout.computeQuadrant(layout.getLowAngle(i), layout.getHighAngle(i));
+		}
+
+		return retval;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public
+	int hitTest()
+	{
+		final
+		int i=(hitIndex++)&(NUM_HIT_POINTS-1);
+
+		return layout.getEntryAt(hitX[i], hitY[i]);
+	}
+}
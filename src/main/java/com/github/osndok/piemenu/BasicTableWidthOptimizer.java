@@ -5,7 +5,6 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.*;
 import java.util.Collection;
-import java.util.Iterator;
 
 /**
  * Given some font metrics and a list of string-values (that will appear in a particular column), compute
@@ -28,39 +27,59 @@ class BasicTableWidthOptimizer
 	Logger log = LoggerFactory.getLogger(BasicTableWidthOptimizer.class);
 
 	private final
-	FontMetrics fontMetrics;
+	LabelWidthCache labelWidths;
 
 	public
 	BasicTableWidthOptimizer(FontMetrics fontMetrics)
 	{
-		this.fontMetrics = fontMetrics;
+		this.labelWidths = LabelWidthCache.forMetrics(fontMetrics);
 	}
 
 	public
 	int getPixelsWide(Collection<String> labels)
 	{
 		final
-		Iterator<String> i = labels.iterator();
+		int[] widths=new int[labels.size()];
+		{
+			int i=0;
+
+			for (String label : labels)
+			{
+				widths[i++]=labelWidths.stringWidth(label);
+			}
+		}
 
-		if (!i.hasNext())
+		return getPixelsWide(widths, 0, widths.length);
+	}
+
+	/**
+	 * @param widths the (already measured) pixel widths of the labels
+	 * @param from   the first label of the column
+	 * @param to     one past the last label of the column
+	 */
+	static
+	int getPixelsWide(int[] widths, int from, int to)
+	{
+		if (from>=to)
 		{
 			throw new UnsupportedOperationException("cannot get optimal width for an empty collection of labels");
 		}
 
-		String label = i.next();
-		int pixelsWide = fontMetrics.stringWidth(label);
+		int pixelsWide = widths[from];
 
 		int count = 1;
 		int min = pixelsWide;
 		int max = pixelsWide;
 		int accum = pixelsWide;
 
-		log.debug("first width is {}", pixelsWide);
+		if (log.isTraceEnabled())
+		{
+			log.trace("first width is {}", pixelsWide);
+		}
 
-		while (i.hasNext())
+		for (int i=from+1; i<to; i++)
 		{
-			label = i.next();
-			pixelsWide = fontMetrics.stringWidth(label);
+			pixelsWide = widths[i];
 			count++;
 
 			if (pixelsWide < min)
@@ -75,7 +94,10 @@ class BasicTableWidthOptimizer
 
 			accum+=pixelsWide;
 
-			log.debug("accumulated #{}: {} <= {} <= {} ... (total = {})", count, min, pixelsWide, max, accum);
+			if (log.isTraceEnabled())
+			{
+				log.trace("accumulated #{}: {} <= {} <= {} ... (total = {})", count, min, pixelsWide, max, accum);
+			}
 		}
 
 		final
@@ -91,19 +113,30 @@ class BasicTableWidthOptimizer
 			if (fullAverage > partialAverage*(100+PERCENT_ALLOWABLE_INFLATION)/100)
 			{
 				average=partialAverage;
-				log.debug("partialAverage={} (removed one outlier)", average);
+
+				if (log.isDebugEnabled())
+				{
+					log.debug("partialAverage={} (removed one outlier)", average);
+				}
 			}
 			else
 			{
 				average=fullAverage;
-				log.debug("fullAverage={}", average);
+
+				if (log.isDebugEnabled())
+				{
+					log.debug("fullAverage={}", average);
+				}
 			}
 		}
 
 		final
 		double inflated=average*(100+PERCENT_ALLOWABLE_INFLATION)/100;
 
-		log.debug("final: avg={}, inflated={}, max={}", average, inflated, max);
+		if (log.isDebugEnabled())
+		{
+			log.debug("final: avg={}, inflated={}, max={}", average, inflated, max);
+		}
 
 		if (inflated>max)
 		{
@@ -0,0 +1,328 @@
+package com.github.osndok.piemenu;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A list model for menus whose contents are built by background workers: its mutators may be called from any thread,
+ * whereas what it shows to its listeners (getSize(), getElementAt(), & the events) only changes on the EDT.
+ *
+ * Changes are not delivered one at a time. They pile up until the EDT gets around to them (and then at most once per
+ * frame), at which point they are all applied at once, as (at most) two events: the range that changed in place,
+ * and the elements that were added to (or removed from) the end. A burst of adds from a worker is therefore a single
+ * intervalAdded(), a single splice of each ShadowList, & a single relayout of the menu... at the cost of some
+ * elements being marked as changed (e.g. everything after an element that was removed from the middle) that were
+ * merely moved.
+ *
+ * The indices given to the mutators refer to the model with every change applied, which (until the next delivery)
+ * is not what getSize() & getElementAt() describe.
+ */
+public final
+class ConcurrentPieMenuModel<T> extends AbstractListModel<T>
+{
+	/**
+	 * About 60 deliveries per second, at most.
+	 */
+	private static final
+	int FRAME_MILLIS = 16;
+
+	private static final
+	long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(FRAME_MILLIS);
+
+	/**
+	 * What the listeners have been told about, which is only used on the EDT.
+	 */
+	private final
+	List<T> elements = new ArrayList<T>();
+
+	/**
+	 * The model with every change applied, which is only used while holding the lock on itself.
+	 */
+	private final
+	List<T> latest = new ArrayList<T>();
+
+	/**
+	 * The lowest index of 'latest' that may differ from 'elements', or Integer.MAX_VALUE if nothing has changed since
+	 * the last delivery. Guarded by 'latest'.
+	 */
+	private
+	int firstChanged = Integer.MAX_VALUE;
+
+	/**
+	 * True if a delivery has already been asked of the EDT. Guarded by 'latest'.
+	 */
+	private
+	boolean deliveryPending;
+
+	/**
+	 * Used to hold a delivery back until a frame has passed since the last one. Only used on the EDT.
+	 */
+	private final
+	Timer timer;
+
+	private
+	long lastDeliveryNanos;
+
+	public
+	ConcurrentPieMenuModel()
+	{
+		timer=new Timer(FRAME_MILLIS, new ActionListener()
+		{
+			public
+			void actionPerformed(ActionEvent actionEvent)
+			{
+				flush();
+			}
+		});
+
+		timer.setRepeats(false);
+	}
+
+	public
+	ConcurrentPieMenuModel(Collection<? extends T> initialElements)
+	{
+		this();
+		elements.addAll(initialElements);
+		latest.addAll(initialElements);
+	}
+
+	/**
+	 * @return the number of elements that the listeners have been told about (only meaningful on the EDT)
+	 */
+	public
+	int getSize()
+	{
+		return elements.size();
+	}
+
+	public
+	T getElementAt(int index)
+	{
+		return elements.get(index);
+	}
+
+	/**
+	 * May be called from any thread.
+	 */
+	public
+	void add(T element)
+	{
+		synchronized (latest)
+		{
+			latest.add(element);
+			changed(latest.size()-1);
+		}
+	}
+
+	/**
+	 * May be called from any thread.
+	 */
+	public
+	void add(int index, T element)
+	{
+		synchronized (latest)
+		{
+			latest.add(index, element);
+			changed(index);
+		}
+	}
+
+	/**
+	 * May be called from any thread.
+	 */
+	public
+	void addAll(Collection<? extends T> elements)
+	{
+		synchronized (latest)
+		{
+			final
+			int index=latest.size();
+
+			if (latest.addAll(elements))
+			{
+				changed(index);
+			}
+		}
+	}
+
+	/**
+	 * May be called from any thread.
+	 */
+	public
+	T set(int index, T element)
+	{
+		synchronized (latest)
+		{
+			final
+			T retval=latest.set(index, element);
+
+			changed(index);
+
+			return retval;
+		}
+	}
+
+	/**
+	 * May be called from any thread.
+	 */
+	public
+	T remove(int index)
+	{
+		synchronized (latest)
+		{
+			final
+			T retval=latest.remove(index);
+
+			changed(index);
+
+			return retval;
+		}
+	}
+
+	/**
+	 * May be called from any thread.
+	 *
+	 * @return true if the element was found (and removed)
+	 */
+	public
+	boolean removeElement(T element)
+	{
+		synchronized (latest)
+		{
+			final
+			int index=latest.indexOf(element);
+
+			if (index<0)
+			{
+				return false;
+			}
+
+			latest.remove(index);
+			changed(index);
+
+			return true;
+		}
+	}
+
+	/**
+	 * May be called from any thread.
+	 */
+	public
+	void clear()
+	{
+		synchronized (latest)
+		{
+			latest.clear();
+			changed(0);
+		}
+	}
+
+	/**
+	 * Must be called while holding the lock on 'latest'.
+	 */
+	private
+	void changed(int index)
+	{
+		firstChanged=Math.min(firstChanged, index);
+
+		if (!deliveryPending)
+		{
+			deliveryPending=true;
+
+			SwingUtilities.invokeLater(new Runnable()
+			{
+				public
+				void run()
+				{
+					scheduleDelivery();
+				}
+			});
+		}
+	}
+
+	private
+	void scheduleDelivery()
+	{
+		final
+		long sinceLastDelivery=System.nanoTime()-lastDeliveryNanos;
+
+		if (sinceLastDelivery>=FRAME_NANOS)
+		{
+			flush();
+		}
+		else
+		if (!timer.isRunning())
+		{
+			timer.setInitialDelay((int)Math.max(1, TimeUnit.NANOSECONDS.toMillis(FRAME_NANOS-sinceLastDelivery)));
+			timer.start();
+		}
+	}
+
+	/**
+	 * Delivers every change made so far to the listeners, right away (rather than waiting for the next frame).
+	 * Must be called on the EDT.
+	 */
+	public
+	void flush()
+	{
+		int first;
+
+		final
+		List<T> changes;
+
+		synchronized (latest)
+		{
+			first=firstChanged;
+			firstChanged=Integer.MAX_VALUE;
+			deliveryPending=false;
+
+			if (first>=latest.size() && latest.size()==elements.size())
+			{
+				//e.g. an add() that was undone by a remove() before it was ever delivered.
+				return;
+			}
+
+			first=Math.min(first, latest.size());
+			changes=new ArrayList<T>(latest.subList(first, latest.size()));
+		}
+
+		timer.stop();
+		lastDeliveryNanos=System.nanoTime();
+
+		final
+		int oldSize=elements.size();
+
+		final
+		int newSize=first+changes.size();
+
+		final
+		int inPlace=Math.min(oldSize, newSize);
+
+		if (first<inPlace)
+		{
+			for (int i=first; i<inPlace; i++)
+			{
+				elements.set(i, changes.get(i-first));
+			}
+
+			fireContentsChanged(this, first, inPlace-1);
+		}
+
+		if (newSize>oldSize)
+		{
+			elements.addAll(changes.subList(inPlace-first, changes.size()));
+			fireIntervalAdded(this, oldSize, newSize-1);
+		}
+		else
+		if (newSize<oldSize)
+		{
+			elements.subList(newSize, oldSize).clear();
+			fireIntervalRemoved(this, newSize, oldSize-1);
+		}
+	}
+}
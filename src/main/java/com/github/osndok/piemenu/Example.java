@@ -4,8 +4,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.awt.font.FontRenderContext;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -30,7 +33,7 @@ class Example extends JFrame implements Runnable, MouseListener
 		setLayout(null);
 
 		final
-		JLabel instructions=new JLabel("Right-click anywhere to open a pie menu");
+		JLabel instructions=new JLabel("Right-click anywhere to open a pie menu, or right-drag (and hold) to mark one");
 		{
 			instructions.setBounds(5,5,400,20);
 		}
@@ -39,9 +42,26 @@ class Example extends JFrame implements Runnable, MouseListener
 		pieMenu=new PieMenu(getPieMenuEntries());
 		{
 			pieMenu.setVisible(false);
+			pieMenu.setOpenAnimationMillis(150);
+			//NB: the wheel is drawn anti-aliased, so measure the labels that way too.
+			pieMenu.prewarm(new FontRenderContext(null, true, false));
 		}
 		add(pieMenu);
 
+		final
+		MarkingMenu markingMenu=new MarkingMenu(pieMenu);
+		{
+			markingMenu.addActionListener(new ActionListener()
+			{
+				public
+				void actionPerformed(ActionEvent actionEvent)
+				{
+					log.info("marked: {}", actionEvent.getActionCommand());
+				}
+			});
+		}
+		markingMenu.install(this);
+
 		setVisible(true);
 		addMouseListener(this);
 	}
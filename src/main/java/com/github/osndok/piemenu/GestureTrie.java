@@ -0,0 +1,239 @@
+package com.github.osndok.piemenu;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of a whole menu tree (a root model, and every submenu that its SubMenuLoader will provide), compiled ahead
+ * of time so that a multi-segment stroke (e.g. a zig-zag that would have walked down through several submenus) can be
+ * resolved with one lookup per segment... without creating, laying out, or painting any of the intermediate menus.
+ *
+ * Compiling will call the loader for every entry in the tree, so should be done off of the EDT (and then the
+ * resulting trie, which is immutable, may be used from any thread).
+ */
+public final
+class GestureTrie
+{
+	/**
+	 * How sharply (in radians) a stroke must turn before it is considered to be a new segment.
+	 */
+	private static final
+	double CORNER_ANGLE = Math.PI/4;
+
+	private final
+	Node root;
+
+	private
+	GestureTrie(Node root)
+	{
+		this.root = root;
+	}
+
+	/**
+	 * @param model          the top-level menu
+	 * @param subMenuLoader  where the submenus of each entry are found (or null, for a single-level menu)
+	 * @param fontMetrics    the font that the menus would be drawn with, which determines how many of a large menu's
+	 *                       entries can be reached by direction alone (i.e. are in the innermost ring)
+	 * @param maximumDepth   how many levels of submenus to follow, which also guards against cyclic menus
+	 */
+	public static
+	GestureTrie compile(ListModel<?> model, SubMenuLoader subMenuLoader, FontMetrics fontMetrics, int maximumDepth)
+		throws Exception
+	{
+		final
+		Map<ListModel<?>, Node> compiled=new IdentityHashMap<ListModel<?>, Node>();
+
+		return new GestureTrie(compile(model, subMenuLoader, fontMetrics, maximumDepth, compiled));
+	}
+
+	private static
+	Node compile(ListModel<?> model, SubMenuLoader subMenuLoader, FontMetrics fontMetrics, int depthRemaining,
+				 Map<ListModel<?>, Node> compiled) throws Exception
+	{
+		Node retval=compiled.get(model);
+
+		if (retval!=null)
+		{
+			//A submenu that appears in more than one place is only compiled once.
+			return retval;
+		}
+
+		final
+		int size=model.getSize();
+
+		final
+		int directions=PieMenuLayout.getFirstRingSize(size, fontMetrics);
+
+		retval=new Node(directions);
+		compiled.put(model, retval);
+
+		for (int i=0; i<directions; i++)
+		{
+			final
+			Object value=model.getElementAt(i);
+
+			retval.values[i]=value;
+
+			if (subMenuLoader!=null && depthRemaining>0)
+			{
+				final
+				ListModel<?> subMenu=subMenuLoader.loadSubMenu(value);
+
+				if (subMenu!=null && subMenu.getSize()>0)
+				{
+					retval.children[i]=compile(subMenu, subMenuLoader, fontMetrics, depthRemaining-1, compiled);
+				}
+			}
+		}
+
+		return retval;
+	}
+
+	/**
+	 * @param directions the direction of each segment of a stroke, in (counter-clockwise) radians, as from atan2()
+	 *                   with the y-axis pointing up
+	 * @return the entry that the last segment lands on, or null if the stroke does not lead anywhere (i.e. is empty,
+	 *         or continues past an entry with no submenu)
+	 */
+	public
+	Object resolve(double[] directions)
+	{
+		Node node=root;
+
+		for (int i=0; node!=null && i<directions.length; i++)
+		{
+			final
+			int wedge=PieMenuLayout.getWedgeIndex(directions[i], node.values.length);
+
+			if (wedge<0)
+			{
+				return null;
+			}
+
+			if (i==directions.length-1)
+			{
+				return node.values[wedge];
+			}
+
+			node=node.children[wedge];
+		}
+
+		return null;
+	}
+
+	/**
+	 * @param stroke the path of the pointer (in screen coordinates), from press to release
+	 * @return the same as resolve(segment(stroke, minimumSegmentLength))
+	 */
+	public
+	Object resolve(List<Point> stroke, int minimumSegmentLength)
+	{
+		return resolve(segment(stroke, minimumSegmentLength));
+	}
+
+	/**
+	 * Breaks a pointer's path into straight segments, wherever it turns a corner.
+	 *
+	 * @param minimumSegmentLength movements shorter than this (in pixels) are ignored as jitter
+	 * @return the directions (in the same form as resolve() takes) of each of the stroke's segments
+	 */
+	static
+	double[] segment(List<Point> stroke, int minimumSegmentLength)
+	{
+		if (stroke.isEmpty())
+		{
+			return new double[0];
+		}
+
+		final
+		List<Point> corners=new ArrayList<Point>();
+
+		Point previous=stroke.get(0);
+		double previousDirection=Double.NaN;
+
+		corners.add(previous);
+
+		for (Point point : stroke)
+		{
+			if (point.distance(previous)<minimumSegmentLength)
+			{
+				continue;
+			}
+
+			final
+			double direction=getDirection(previous, point);
+
+			if (!Double.isNaN(previousDirection) && getTurn(previousDirection, direction)>CORNER_ANGLE)
+			{
+				corners.add(previous);
+			}
+
+			previous=point;
+			previousDirection=direction;
+		}
+
+		final
+		Point last=stroke.get(stroke.size()-1);
+
+		if (corners.get(corners.size()-1).distance(last)>=minimumSegmentLength)
+		{
+			corners.add(last);
+		}
+
+		final
+		double[] retval=new double[corners.size()-1];
+		{
+			for (int i=0; i<retval.length; i++)
+			{
+				retval[i]=getDirection(corners.get(i), corners.get(i+1));
+			}
+		}
+
+		return retval;
+	}
+
+	private static
+	double getDirection(Point from, Point to)
+	{
+		//NB: screen coordinates grow "downward", but our angles are the traditional counter-clockwise ones.
+		return Math.atan2(from.y-to.y, to.x-from.x);
+	}
+
+	/**
+	 * @return the (unsigned) angle between two directions, from 0 to PI
+	 */
+	private static
+	double getTurn(double a, double b)
+	{
+		final
+		double difference=Math.abs(a-b)%(2*Math.PI);
+
+		return Math.min(difference, 2*Math.PI-difference);
+	}
+
+	private static final
+	class Node
+	{
+		/**
+		 * The entries that can be reached by direction, in wedge order.
+		 */
+		final
+		Object[] values;
+
+		/**
+		 * The submenus of each of those entries, or null where there is none.
+		 */
+		final
+		Node[] children;
+
+		Node(int directions)
+		{
+			this.values = new Object[directions];
+			this.children = new Node[directions];
+		}
+	}
+}
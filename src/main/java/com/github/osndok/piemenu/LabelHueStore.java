@@ -0,0 +1,343 @@
+package com.github.osndok.piemenu;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.module.util.SystemPropertyOrEnvironment;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Provides the hues for the LABEL_HASH colorizer. The hue is derived from the label (case-insensitively) without
+ * allocating anything, and can optionally be remembered in a file (named by the PIE_MENU_HUE_STORE property or
+ * environment variable), which is read once and then re-written in the background as new labels are seen. Hues
+ * that are in the file take precedence over computed ones, so a user may also use it to choose their own colors.
+ *
+ * Only the hues that were chosen in the file (i.e. that differ from the computed ones) are kept for good. The labels
+ * that are merely seen are written too, so that there is something to edit, but only the most recently seen
+ * MAX_SEEN_LABELS of them; as their hues can always be computed again, forgetting one costs nothing.
+ */
+class LabelHueStore
+{
+	private static final
+	Logger log = LoggerFactory.getLogger(LabelHueStore.class);
+
+	/**
+	 * How long to wait (after seeing a new label) before writing the file, so that a whole menu's worth of new
+	 * labels will be written at once.
+	 */
+	private static final
+	long WRITE_DELAY_MILLIS = 2000;
+
+	private static final
+	long[] POWERS_OF_TEN = {
+		1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L, 10000000000L
+	};
+
+	/**
+	 * The most computed hues that are remembered (& written to the file) at once.
+	 */
+	private static final
+	int MAX_SEEN_LABELS = 1000;
+
+	/**
+	 * The hues from the file that differ from the computed ones, which are never forgotten.
+	 */
+	private static final
+	Map<String, Float> chosenHues = new ConcurrentHashMap<String, Float>();
+
+	/**
+	 * The computed hues of the most recently seen labels, in access order. Guarded by itself.
+	 */
+	private static final
+	Map<String, Float> seenHues = new LinkedHashMap<String, Float>(16, 0.75f, true)
+	{
+		@Override
+		protected
+		boolean removeEldestEntry(Map.Entry<String, Float> eldest)
+		{
+			return size()>MAX_SEEN_LABELS;
+		}
+	};
+
+	private static final
+	File file = getStoreFile();
+
+	private static final
+	AtomicBoolean writeScheduled = new AtomicBoolean();
+
+	private static
+	ScheduledExecutorService writer;
+
+	static
+	{
+		if (file!=null && file.exists())
+		{
+			load();
+		}
+	}
+
+	private
+	LabelHueStore()
+	{
+		//no instances
+	}
+
+	private static
+	File getStoreFile()
+	{
+		final
+		String path=SystemPropertyOrEnvironment.get("PIE_MENU_HUE_STORE");
+
+		if (path==null)
+		{
+			return null;
+		}
+		else
+		{
+			return new File(path);
+		}
+	}
+
+	/**
+	 * @return the hue (0.0 to 1.0) for the given label, which will be the same across VM restarts
+	 */
+	static
+	float getHue(String label)
+	{
+		if (file==null)
+		{
+			return computeHue(label);
+		}
+
+		final
+		Float chosen=chosenHues.get(label);
+
+		if (chosen!=null)
+		{
+			return chosen;
+		}
+
+		final
+		float retval=computeHue(label);
+
+		final
+		boolean isNew;
+
+		synchronized (seenHues)
+		{
+			isNew=(seenHues.put(label, retval)==null);
+		}
+
+		if (isNew)
+		{
+			scheduleWrite();
+		}
+
+		return retval;
+	}
+
+	/**
+	 * The hue is the decimal digits of the case-insensitive hash of the label, read as a fraction (e.g. a hash of
+	 * 1234 yields a hue of 0.1234). Negative hashes are treated as positive.
+	 */
+	static
+	float computeHue(String label)
+	{
+		//NB: for ASCII labels, the same as label.toLowerCase(Locale.ROOT).hashCode(), but without the copy. Each char is
+		//lower-cased on its own, so it can differ for those that String.toLowerCase() maps in context (or to several).
+		int hash=0;
+
+		for (int i=0; i<label.length(); i++)
+		{
+			hash=31*hash+Character.toLowerCase(label.charAt(i));
+		}
+
+		final
+		long magnitude=Math.abs((long)hash);
+
+		if (magnitude==0)
+		{
+			return 0.0f;
+		}
+
+		//The smallest power of ten that is no smaller than the hash, i.e. 10^ceil(log10(hash)).
+		int exponent=0;
+
+		while (POWERS_OF_TEN[exponent]<magnitude)
+		{
+			exponent++;
+		}
+
+		return (float)(((double)magnitude)/POWERS_OF_TEN[exponent]);
+	}
+
+	private static
+	void load()
+	{
+		final
+		Properties properties=new Properties();
+
+		try
+		{
+			final
+			InputStream in=new FileInputStream(file);
+
+			try
+			{
+				properties.load(in);
+			}
+			finally
+			{
+				in.close();
+			}
+		}
+		catch (IOException e)
+		{
+			log.error("unable to read label hues from: {}", file, e);
+			return;
+		}
+
+		for (String label : properties.stringPropertyNames())
+		{
+			final
+			String value=properties.getProperty(label);
+
+			try
+			{
+				final
+				float hue=Float.parseFloat(value);
+
+				if (hue==computeHue(label))
+				{
+					synchronized (seenHues)
+					{
+						seenHues.put(label, hue);
+					}
+				}
+				else
+				{
+					chosenHues.put(label, hue);
+				}
+			}
+			catch (NumberFormatException e)
+			{
+				log.error("invalid hue for '{}' in {}: '{}'", label, file, value);
+			}
+		}
+
+		log.debug("loaded {} label hues from: {}", properties.size(), file);
+	}
+
+	private static
+	void scheduleWrite()
+	{
+		if (writeScheduled.compareAndSet(false, true))
+		{
+			getWriter().schedule(new Runnable()
+			{
+				public
+				void run()
+				{
+					writeScheduled.set(false);
+					write();
+				}
+			}, WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private static synchronized
+	ScheduledExecutorService getWriter()
+	{
+		if (writer==null)
+		{
+			writer=Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+			{
+				public
+				Thread newThread(Runnable runnable)
+				{
+					final
+					Thread retval=new Thread(runnable, "pie-menu-hue-store");
+					{
+						retval.setDaemon(true);
+					}
+
+					return retval;
+				}
+			});
+		}
+
+		return writer;
+	}
+
+	/**
+	 * Writes the chosen & recently seen hues to a temporary file, and then moves it over the store, so that a crash (or
+	 * another VM reading it) will never see a half-written file.
+	 */
+	private static
+	void write()
+	{
+		final
+		Properties properties=new Properties();
+		{
+			synchronized (seenHues)
+			{
+				for (Map.Entry<String, Float> me : seenHues.entrySet())
+				{
+					properties.setProperty(me.getKey(), me.getValue().toString());
+				}
+			}
+
+			for (Map.Entry<String, Float> me : chosenHues.entrySet())
+			{
+				properties.setProperty(me.getKey(), me.getValue().toString());
+			}
+		}
+
+		final
+		File temp=new File(file.getPath()+".tmp");
+
+		try
+		{
+			final
+			OutputStream out=new FileOutputStream(temp);
+
+			try
+			{
+				properties.store(out, "pie-menu label hues");
+			}
+			finally
+			{
+				out.close();
+			}
+
+			if (!temp.renameTo(file))
+			{
+				//Some platforms will not rename over an existing file.
+				if (!file.delete() || !temp.renameTo(file))
+				{
+					throw new IOException("unable to rename "+temp+" to "+file);
+				}
+			}
+
+			log.debug("wrote {} label hues to: {}", properties.size(), file);
+		}
+		catch (IOException e)
+		{
+			log.error("unable to write label hues to: {}", file, e);
+		}
+	}
+}
@@ -0,0 +1,286 @@
+package com.github.osndok.piemenu;
+
+import javax.swing.*;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A sorted array of a list model's labels (upper-cased, as JList's type-ahead compares them), with the model index
+ * of each, so that all the labels starting with a prefix can be found with a binary search. It is kept up-to-date
+ * from the model's events, in the manner of ShadowList, so that only the elements that were added or changed ever
+ * have their toString() called.
+ */
+class LabelPrefixIndex implements ListDataListener
+{
+	/**
+	 * Adding more than this many elements at once re-sorts everything, rather than inserting them one at a time.
+	 */
+	private static final
+	int MAXIMUM_INCREMENTAL_ADD = 16;
+
+	private final
+	ListModel<?> listModel;
+
+	private
+	String[] keys = new String[0];
+
+	private
+	int[] indices = new int[0];
+
+	private
+	int size;
+
+	LabelPrefixIndex(ListModel<?> listModel)
+	{
+		this.listModel = listModel;
+		listModel.addListDataListener(this);
+		rebuild();
+	}
+
+	/**
+	 * Stops following the model, which is only needed if the model will outlive this index.
+	 */
+	void dispose()
+	{
+		listModel.removeListDataListener(this);
+	}
+
+	static
+	String toKey(Object value)
+	{
+		return String.valueOf(value).toUpperCase();
+	}
+
+	/**
+	 * @param prefix an already upper-cased prefix (see toKey())
+	 * @param matches set to true at the model index of every label that starts with the prefix
+	 * @return how many labels start with the prefix
+	 */
+	int markMatches(String prefix, boolean[] matches)
+	{
+		int count=0;
+
+		for (int i=lowerBound(prefix); i<size && keys[i].startsWith(prefix); i++)
+		{
+			matches[indices[i]]=true;
+			count++;
+		}
+
+		return count;
+	}
+
+	/**
+	 * @param prefix an already upper-cased prefix (see toKey())
+	 */
+	boolean hasMatch(String prefix)
+	{
+		final
+		int i=lowerBound(prefix);
+
+		return i<size && keys[i].startsWith(prefix);
+	}
+
+	/**
+	 * @return the position of the first key that is not less than the given one
+	 */
+	private
+	int lowerBound(String key)
+	{
+		int low=0;
+		int high=size;
+
+		while (low<high)
+		{
+			final
+			int middle=(low+high)>>>1;
+
+			if (keys[middle].compareTo(key)<0)
+			{
+				low=middle+1;
+			}
+			else
+			{
+				high=middle;
+			}
+		}
+
+		return low;
+	}
+
+	public
+	void intervalAdded(ListDataEvent listDataEvent)
+	{
+		final
+		int a=lowIndex(listDataEvent);
+
+		final
+		int b=highIndex(listDataEvent);
+
+		final
+		int count=b-a+1;
+
+		if (count>MAXIMUM_INCREMENTAL_ADD)
+		{
+			rebuild();
+			return;
+		}
+
+		//Everything at or after the insertion point has moved down.
+		for (int i=0; i<size; i++)
+		{
+			if (indices[i]>=a)
+			{
+				indices[i]+=count;
+			}
+		}
+
+		for (int index=a; index<=b; index++)
+		{
+			insert(toKey(listModel.getElementAt(index)), index);
+		}
+	}
+
+	public
+	void intervalRemoved(ListDataEvent listDataEvent)
+	{
+		final
+		int a=lowIndex(listDataEvent);
+
+		final
+		int b=highIndex(listDataEvent);
+
+		removeRange(a, b, b-a+1);
+	}
+
+	public
+	void contentsChanged(ListDataEvent listDataEvent)
+	{
+		final
+		int a=lowIndex(listDataEvent);
+
+		if (a<0 || highIndex(listDataEvent)-a+1>MAXIMUM_INCREMENTAL_ADD)
+		{
+			rebuild();
+			return;
+		}
+
+		final
+		int b=highIndex(listDataEvent);
+
+		removeRange(a, b, 0);
+
+		for (int index=a; index<=b; index++)
+		{
+			insert(toKey(listModel.getElementAt(index)), index);
+		}
+	}
+
+	private static
+	int lowIndex(ListDataEvent listDataEvent)
+	{
+		return Math.min(listDataEvent.getIndex0(), listDataEvent.getIndex1());
+	}
+
+	private static
+	int highIndex(ListDataEvent listDataEvent)
+	{
+		return Math.max(listDataEvent.getIndex0(), listDataEvent.getIndex1());
+	}
+
+	/**
+	 * Drops the keys of model indices a through b, and moves the indices after them up by the given amount.
+	 */
+	private
+	void removeRange(int a, int b, int shift)
+	{
+		int kept=0;
+
+		for (int i=0; i<size; i++)
+		{
+			final
+			int index=indices[i];
+
+			if (index<a)
+			{
+				keys[kept]=keys[i];
+				indices[kept]=index;
+				kept++;
+			}
+			else
+			if (index>b)
+			{
+				keys[kept]=keys[i];
+				indices[kept]=index-shift;
+				kept++;
+			}
+		}
+
+		Arrays.fill(keys, kept, size, null);
+		size=kept;
+	}
+
+	private
+	void insert(String key, int index)
+	{
+		if (size==keys.length)
+		{
+			final
+			int capacity=Math.max(16, 2*size);
+
+			keys=Arrays.copyOf(keys, capacity);
+			indices=Arrays.copyOf(indices, capacity);
+		}
+
+		final
+		int position=lowerBound(key);
+
+		System.arraycopy(keys, position, keys, position+1, size-position);
+		System.arraycopy(indices, position, indices, position+1, size-position);
+
+		keys[position]=key;
+		indices[position]=index;
+		size++;
+	}
+
+	private
+	void rebuild()
+	{
+		final
+		int n=listModel.getSize();
+
+		final
+		String[] unsorted=new String[n];
+
+		final
+		Integer[] order=new Integer[n];
+		{
+			for (int i=0; i<n; i++)
+			{
+				unsorted[i]=toKey(listModel.getElementAt(i));
+				order[i]=i;
+			}
+
+			Arrays.sort(order, new Comparator<Integer>()
+			{
+				public
+				int compare(Integer a, Integer b)
+				{
+					return unsorted[a].compareTo(unsorted[b]);
+				}
+			});
+		}
+
+		keys=new String[Math.max(16, n)];
+		indices=new int[keys.length];
+
+		for (int i=0; i<n; i++)
+		{
+			keys[i]=unsorted[order[i]];
+			indices[i]=order[i];
+		}
+
+		size=n;
+	}
+}
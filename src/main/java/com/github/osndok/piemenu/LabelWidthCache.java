@@ -0,0 +1,140 @@
+package com.github.osndok.piemenu;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Measuring text is one of the more expensive things that AWT does, and menu labels rarely change, so the pixel
+ * widths of labels are remembered (per font & rendering context) and shared between all the pie menus. Both the
+ * number of fonts and the number of labels per font are bounded, with the least-recently-used being forgotten first.
+ */
+class LabelWidthCache
+{
+	private static final
+	int MAXIMUM_FONTS = 16;
+
+	private static final
+	int MAXIMUM_LABELS_PER_FONT = 1024;
+
+	private static final
+	Map<Key, LabelWidthCache> sharedCaches = new LruMap<Key, LabelWidthCache>(MAXIMUM_FONTS);
+
+	/**
+	 * @return the (shared) cache for the font & rendering context of the given metrics
+	 */
+	static
+	LabelWidthCache forMetrics(FontMetrics fontMetrics)
+	{
+		final
+		Key key=new Key(fontMetrics.getFont(), fontMetrics.getFontRenderContext());
+
+		synchronized (sharedCaches)
+		{
+			LabelWidthCache retval=sharedCaches.get(key);
+
+			if (retval==null)
+			{
+				retval=new LabelWidthCache(fontMetrics);
+				sharedCaches.put(key, retval);
+			}
+
+			return retval;
+		}
+	}
+
+	private final
+	FontMetrics fontMetrics;
+
+	private final
+	Map<String, Integer> widths = new LruMap<String, Integer>(MAXIMUM_LABELS_PER_FONT);
+
+	private
+	LabelWidthCache(FontMetrics fontMetrics)
+	{
+		this.fontMetrics = fontMetrics;
+	}
+
+	/**
+	 * @return the same value as FontMetrics.stringWidth(), but only measuring a given label once
+	 */
+	synchronized
+	int stringWidth(String label)
+	{
+		final
+		Integer cached=widths.get(label);
+
+		PieMenuMetrics.labelWidth(cached!=null);
+
+		if (cached!=null)
+		{
+			return cached;
+		}
+
+		final
+		int retval=fontMetrics.stringWidth(label);
+
+		widths.put(label, retval);
+
+		return retval;
+	}
+
+	private static final
+	class Key
+	{
+		private final
+		Font font;
+
+		private final
+		FontRenderContext fontRenderContext;
+
+		Key(Font font, FontRenderContext fontRenderContext)
+		{
+			this.font = font;
+			this.fontRenderContext = fontRenderContext;
+		}
+
+		@Override
+		public
+		boolean equals(Object o)
+		{
+			if (!(o instanceof Key))
+			{
+				return false;
+			}
+
+			final
+			Key that=(Key)o;
+
+			return font.equals(that.font) && fontRenderContext.equals(that.fontRenderContext);
+		}
+
+		@Override
+		public
+		int hashCode()
+		{
+			return 31*font.hashCode()+fontRenderContext.hashCode();
+		}
+	}
+
+	private static
+	class LruMap<K, V> extends LinkedHashMap<K, V>
+	{
+		private final
+		int maximumSize;
+
+		LruMap(int maximumSize)
+		{
+			super(16, 0.75f, true);
+			this.maximumSize = maximumSize;
+		}
+
+		@Override
+		protected
+		boolean removeEldestEntry(Map.Entry<K, V> eldest)
+		{
+			return size()>maximumSize;
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package com.github.osndok.piemenu;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations, with one bucket per power of two nanoseconds. That is too coarse for exact
+ * percentiles, but it costs only a few atomic increments to record a sample (and never allocates), so it can be
+ * left running on the paint path.
+ */
+class LatencyHistogram
+{
+	private static final
+	int NUM_BUCKETS = 64;
+
+	/**
+	 * Bucket #n counts the samples where 2^n <= nanos < 2^(n+1), except bucket #0, which also counts zero.
+	 */
+	private final
+	AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+
+	private final
+	AtomicLong count = new AtomicLong();
+
+	private final
+	AtomicLong totalNanos = new AtomicLong();
+
+	private final
+	AtomicLong maximumNanos = new AtomicLong();
+
+	void record(long nanos)
+	{
+		if (nanos<0)
+		{
+			//e.g. nanoTime() is not monotonic on some old/virtualized systems.
+			nanos=0;
+		}
+
+		buckets.incrementAndGet(getBucket(nanos));
+		count.incrementAndGet();
+		totalNanos.addAndGet(nanos);
+
+		long maximum=maximumNanos.get();
+
+		while (nanos>maximum && !maximumNanos.compareAndSet(maximum, nanos))
+		{
+			maximum=maximumNanos.get();
+		}
+	}
+
+	private static
+	int getBucket(long nanos)
+	{
+		if (nanos==0)
+		{
+			return 0;
+		}
+		else
+		{
+			return 63-Long.numberOfLeadingZeros(nanos);
+		}
+	}
+
+	long getCount()
+	{
+		return count.get();
+	}
+
+	double getMeanMicros()
+	{
+		final
+		long n=count.get();
+
+		if (n==0)
+		{
+			return 0.0;
+		}
+
+		return totalNanos.get()/1000.0/n;
+	}
+
+	double getMaximumMicros()
+	{
+		return maximumNanos.get()/1000.0;
+	}
+
+	/**
+	 * @param percentile e.g. 99.0
+	 * @return the upper bound of the bucket that holds the given percentile, i.e. an overestimate by at most 2x
+	 */
+	double getPercentileMicros(double percentile)
+	{
+		final
+		long[] snapshot=getBuckets();
+
+		long n=0;
+
+		for (long bucketCount : snapshot)
+		{
+			n+=bucketCount;
+		}
+
+		if (n==0)
+		{
+			return 0.0;
+		}
+
+		final
+		long target=(long)Math.ceil(n*percentile/100.0);
+
+		long seen=0;
+
+		for (int i=0; i<NUM_BUCKETS; i++)
+		{
+			seen+=snapshot[i];
+
+			if (seen>=target)
+			{
+				return Math.min(Math.pow(2, i+1)/1000.0, getMaximumMicros());
+			}
+		}
+
+		return getMaximumMicros();
+	}
+
+	/**
+	 * @return a copy of the bucket counts, where index n counts the samples that took (about) 2^n nanoseconds
+	 */
+	long[] getBuckets()
+	{
+		final
+		long[] retval=new long[NUM_BUCKETS];
+		{
+			for (int i=0; i<NUM_BUCKETS; i++)
+			{
+				retval[i]=buckets.get(i);
+			}
+		}
+
+		return retval;
+	}
+
+	void reset()
+	{
+		for (int i=0; i<NUM_BUCKETS; i++)
+		{
+			buckets.set(i, 0);
+		}
+
+		count.set(0);
+		totalNanos.set(0);
+		maximumNanos.set(0);
+	}
+}
@@ -0,0 +1,394 @@
+package com.github.osndok.piemenu;
+
+import javax.swing.*;
+import javax.swing.event.EventListenerList;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lets a pie menu be used as a "marking menu": someone who knows where an action sits can press (the right button,
+ * or control & the left), flick in the direction of its wedge, and release... and the direction alone selects it,
+ * without the menu ever being shown (or even painted). Only if the pointer is held still for longer than the popup
+ * delay does the menu appear, after which the wedge under the pointer when it is released is chosen.
+ *
+ * Choosing a wedge selects it in the pie menu, and then fires an ActionEvent (from the pie menu, with the chosen
+ * value as the action command) to this marking menu's listeners.
+ *
+ * Given a GestureTrie, a mark that turns corners (e.g. a zig-zag) is taken to walk down through the submenus, and
+ * the entry at the end of it is chosen (without any of those submenus being shown).
+ */
+public
+class MarkingMenu extends MouseAdapter
+{
+	private static final
+	int DEFAULT_POPUP_DELAY_MILLIS = 333;
+
+	private static final
+	int DEFAULT_MINIMUM_MARK_LENGTH = 10;
+
+	/**
+	 * Movements this small (in pixels) are considered to be a hand that is "holding still".
+	 */
+	private static final
+	int STILLNESS_TOLERANCE = 2;
+
+	private final
+	PieMenu<?> pieMenu;
+
+	private final
+	Timer popupTimer;
+
+	private final
+	EventListenerList listenerList = new EventListenerList();
+
+	private
+	int minimumMarkLength = DEFAULT_MINIMUM_MARK_LENGTH;
+
+	private
+	GestureTrie gestureTrie;
+
+	/**
+	 * The path of the pointer during the current gesture (only kept if there is a gesture trie).
+	 */
+	private final
+	List<Point> stroke = new ArrayList<Point>();
+
+	/**
+	 * The component that the current gesture started in, or null if there is no gesture in progress.
+	 */
+	private
+	Component host;
+
+	private
+	Point pressPoint;
+
+	private
+	Point lastPoint;
+
+	/**
+	 * True if the current gesture has (by pausing) caused the menu to be shown.
+	 */
+	private
+	boolean poppedUp;
+
+	public
+	MarkingMenu(PieMenu<?> pieMenu)
+	{
+		if (pieMenu==null)
+		{
+			throw new NullPointerException();
+		}
+
+		this.pieMenu = pieMenu;
+		this.popupTimer = new Timer(DEFAULT_POPUP_DELAY_MILLIS, new ActionListener()
+		{
+			public
+			void actionPerformed(ActionEvent actionEvent)
+			{
+				popUp();
+			}
+		});
+		popupTimer.setRepeats(false);
+	}
+
+	/**
+	 * Starts watching the given component for gestures. The pie menu must be (or become) a child of one of its
+	 * ancestors for it to be shown, but marks will work even if the menu is not in any container at all.
+	 */
+	public
+	void install(Component component)
+	{
+		component.addMouseListener(this);
+		component.addMouseMotionListener(this);
+	}
+
+	public
+	void uninstall(Component component)
+	{
+		component.removeMouseListener(this);
+		component.removeMouseMotionListener(this);
+	}
+
+	public
+	int getPopupDelay()
+	{
+		return popupTimer.getInitialDelay();
+	}
+
+	/**
+	 * @param millis how long the pointer must be held still (during a gesture) before the menu is shown
+	 */
+	public
+	void setPopupDelay(int millis)
+	{
+		popupTimer.setInitialDelay(millis);
+	}
+
+	public
+	int getMinimumMarkLength()
+	{
+		return minimumMarkLength;
+	}
+
+	/**
+	 * @param pixels how far the pointer must travel for a mark (made without showing the menu) to select anything
+	 */
+	public
+	void setMinimumMarkLength(int pixels)
+	{
+		this.minimumMarkLength = pixels;
+	}
+
+	public
+	GestureTrie getGestureTrie()
+	{
+		return gestureTrie;
+	}
+
+	/**
+	 * @param gestureTrie the menu tree (as compiled by PieMenu.compileGestureTrie()) that multi-segment marks select
+	 *                    from, or null to only recognize single-segment marks
+	 */
+	public
+	void setGestureTrie(GestureTrie gestureTrie)
+	{
+		this.gestureTrie = gestureTrie;
+	}
+
+	public
+	void addActionListener(ActionListener actionListener)
+	{
+		listenerList.add(ActionListener.class, actionListener);
+	}
+
+	public
+	void removeActionListener(ActionListener actionListener)
+	{
+		listenerList.remove(ActionListener.class, actionListener);
+	}
+
+	private static
+	boolean isTrigger(MouseEvent mouseEvent)
+	{
+		return SwingUtilities.isRightMouseButton(mouseEvent)
+				   || (mouseEvent.isControlDown() && SwingUtilities.isLeftMouseButton(mouseEvent));
+	}
+
+	@Override
+	public
+	void mousePressed(MouseEvent mouseEvent)
+	{
+		if (host!=null || !isTrigger(mouseEvent))
+		{
+			return;
+		}
+
+		host=mouseEvent.getComponent();
+		pressPoint=mouseEvent.getPoint();
+		lastPoint=pressPoint;
+		poppedUp=false;
+		popupTimer.restart();
+
+		stroke.clear();
+
+		if (gestureTrie!=null)
+		{
+			stroke.add(pressPoint);
+		}
+	}
+
+	@Override
+	public
+	void mouseDragged(MouseEvent mouseEvent)
+	{
+		if (mouseEvent.getComponent()!=host)
+		{
+			return;
+		}
+
+		final
+		Point point=mouseEvent.getPoint();
+
+		if (poppedUp)
+		{
+			trackSelection(point);
+			lastPoint=point;
+		}
+		else
+		if (Math.abs(point.x-lastPoint.x)>STILLNESS_TOLERANCE || Math.abs(point.y-lastPoint.y)>STILLNESS_TOLERANCE)
+		{
+			//Still moving, so (if they stop here) the menu will appear one popup-delay from now.
+			popupTimer.restart();
+
+			if (gestureTrie!=null)
+			{
+				stroke.add(point);
+			}
+
+			//NB: only moved on from here once the tolerance is exceeded, so that a slow drag (of a pixel or two per
+			//event) still adds up to movement, rather than looking like a hand that is holding still.
+			lastPoint=point;
+		}
+	}
+
+	@Override
+	public
+	void mouseReleased(MouseEvent mouseEvent)
+	{
+		if (mouseEvent.getComponent()!=host)
+		{
+			return;
+		}
+
+		popupTimer.stop();
+		host=null;
+
+		final
+		Point point=mouseEvent.getPoint();
+
+		final
+		int index;
+
+		if (poppedUp)
+		{
+			index=pieMenu.locationToIndex(SwingUtilities.convertPoint(mouseEvent.getComponent(), point, pieMenu));
+			pieMenu.setVisible(false);
+			poppedUp=false;
+		}
+		else
+		{
+			if (gestureTrie!=null)
+			{
+				stroke.add(point);
+
+				final
+				double[] directions=GestureTrie.segment(stroke, minimumMarkLength);
+
+				//NB: a zig-zag might end up right back where it started, so this comes before the 'click' check.
+				if (directions.length>1)
+				{
+					final
+					Object value=gestureTrie.resolve(directions);
+
+					if (value!=null)
+					{
+						fireActionPerformed(value, mouseEvent);
+					}
+
+					return;
+				}
+			}
+
+			final
+			int dx=point.x-pressPoint.x;
+
+			final
+			int dy=point.y-pressPoint.y;
+
+			if (dx*dx+dy*dy<minimumMarkLength*minimumMarkLength)
+			{
+				//Just a click (or an aborted mark).
+				return;
+			}
+
+			index=pieMenu.directionToIndex(dx, dy);
+		}
+
+		if (index>=0)
+		{
+			pieMenu.setSelectedIndex(index);
+			fireActionPerformed(pieMenu.getModel().getElementAt(index), mouseEvent);
+		}
+	}
+
+	/**
+	 * Called by the popup timer, when the pointer has been held still (mid-gesture) for long enough.
+	 */
+	private
+	void popUp()
+	{
+		final
+		Container parent=pieMenu.getParent();
+
+		if (host==null || parent==null)
+		{
+			return;
+		}
+
+		pieMenu.setCenter(SwingUtilities.convertPoint(host, pressPoint, parent));
+		pieMenu.setVisible(true);
+		poppedUp=true;
+
+		trackSelection(lastPoint);
+	}
+
+	private
+	void trackSelection(Point hostPoint)
+	{
+		final
+		int i=pieMenu.locationToIndex(SwingUtilities.convertPoint(host, hostPoint, pieMenu));
+
+		if (i<0)
+		{
+			pieMenu.clearSelection();
+		}
+		else
+		if (i!=pieMenu.getSelectedIndex())
+		{
+			pieMenu.setSelectedIndex(i);
+		}
+	}
+
+	/**
+	 * @return the modifier keys that were held, in the (old-style) masks that ActionEvent uses
+	 */
+	private static
+	int getActionModifiers(MouseEvent mouseEvent)
+	{
+		final
+		int modifiersEx=mouseEvent.getModifiersEx();
+
+		int retval=0;
+
+		if ((modifiersEx & InputEvent.SHIFT_DOWN_MASK)!=0)
+		{
+			retval|=ActionEvent.SHIFT_MASK;
+		}
+
+		if ((modifiersEx & InputEvent.CTRL_DOWN_MASK)!=0)
+		{
+			retval|=ActionEvent.CTRL_MASK;
+		}
+
+		if ((modifiersEx & InputEvent.META_DOWN_MASK)!=0)
+		{
+			retval|=ActionEvent.META_MASK;
+		}
+
+		if ((modifiersEx & InputEvent.ALT_DOWN_MASK)!=0)
+		{
+			retval|=ActionEvent.ALT_MASK;
+		}
+
+		return retval;
+	}
+
+	private
+	void fireActionPerformed(Object value, MouseEvent mouseEvent)
+	{
+		final
+		ActionEvent actionEvent=new ActionEvent(pieMenu, ActionEvent.ACTION_PERFORMED, String.valueOf(value),
+												   mouseEvent.getWhen(), getActionModifiers(mouseEvent));
+
+		for (ActionListener actionListener : listenerList.getListeners(ActionListener.class))
+		{
+			actionListener.actionPerformed(actionEvent);
+		}
+	}
+}
@@ -5,22 +5,37 @@ import org.slf4j.LoggerFactory;
 
 import javax.module.util.SystemPropertyOrEnvironment;
 import javax.swing.*;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
+import javax.swing.text.Position;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.awt.font.FontRenderContext;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.Arc2D;
-import java.awt.geom.Ellipse2D;
-import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by robert on 2015-11-04 13:51.
  */
 public
-class PieMenu<T> extends JList<T> implements MouseMotionListener, MouseListener
+class PieMenu<T> extends JList<T> implements MouseMotionListener, MouseListener, ListDataListener, ListSelectionListener
 {
 	private static final
 	Logger log = LoggerFactory.getLogger(PieMenu.class);
@@ -28,424 +43,1644 @@ class PieMenu<T> extends JList<T> implements MouseMotionListener, MouseListener
 	private
 	boolean centeredLabels = false;
 
+	private
+	Point centerPoint;
+
+	private final
+	ListModel<T> listModel;
+
+	/**
+	 * The entry for every element of the model, or null if the menu is paged (see setPageSize()).
+	 */
+	private
+	ShadowList<PieMenuEntry> pieMenuEntries;
+
+	/**
+	 * The colors of each wedge: one per element of the model, or (if the menu is paged) one per wedge of the current
+	 * page, or null if the current page has not been colored yet.
+	 */
+	private
+	WedgeStore wedgeStore;
+
+	/**
+	 * The labels of the whole model, sorted for type-ahead; only built once something is typed.
+	 */
+	private
+	LabelPrefixIndex labelPrefixIndex;
+
+	/**
+	 * The most elements that are shown at once (with a "more" wedge to page through the rest), or zero to show them
+	 * all. When paging, entries only exist for the elements on the current page.
+	 */
+	private
+	int pageSize;
+
+	/**
+	 * The model index of the first element on the current page (always a multiple of the page size).
+	 */
+	private
+	int pageStart;
+
+	/**
+	 * The entries of the elements on the current page (when paging), or null if they must be created again.
+	 */
+	private
+	PieMenuEntry[] pageEntries;
+
+	/**
+	 * The last wedge of a paged menu, which shows the next page when clicked.
+	 */
+	private
+	PieMenuEntry moreEntry;
+
 	private static final
-	int LABEL_PADDING = 5;
+	String MORE_LABEL = "more\u2026";
 
 	private static final
-	boolean DEBUG = true;
+	Color MORE_BACKGROUND = new Color(224, 224, 224);
 
+	/**
+	 * The geometry for the current model & font, or null if it must be recomputed before the next paint.
+	 */
 	private
-	Point centerPoint;
+	PieMenuLayout pieMenuLayout;
 
-	private final
-	DefaultListModel<T> listModel;
+	/**
+	 * The entries that the current pieMenuLayout was computed from (index-for-index).
+	 */
+	private
+	PieMenuEntry[] layoutEntries;
 
-	private final
-	ShadowList<PieMenuEntry> pieMenuEntries;
+	/**
+	 * Counts the invalidations of the layout, so that a layout which was prepared in the background (see prewarm())
+	 * can tell whether it is still any good by the time it reaches the EDT.
+	 */
+	private
+	int layoutGeneration;
+
+	/**
+	 * How the labels are measured (see prewarm()), or null to measure them as the component would by default.
+	 */
+	private
+	FontRenderContext fontRenderContext;
+
+	/**
+	 * True if a bounds update has already been queued on the EDT, so that a burst of model changes will only
+	 * cause the layout to be recomputed once.
+	 */
+	private
+	boolean boundsUpdatePending;
+
+	public
+	PieMenu(List<T> entries)
+	{
+		this(createListModel(entries));
+	}
+
+	/**
+	 * @param listModel the elements of the menu, which need not be a DefaultListModel (e.g. a ConcurrentPieMenuModel,
+	 *                  when the menu is filled in from other threads)
+	 */
+	public
+	PieMenu(ListModel<T> listModel)
+	{
+		super(listModel);
+		this.listModel = listModel;
+		this.pieMenuEntries = new ShadowList<PieMenuEntry>(listModel);
+		this.wedgeStore = new WedgeStore(listModel);
+		listModel.addListDataListener(this);
+		addListSelectionListener(this);
+		addMouseListener(this);
+		addMouseMotionListener(this);
+
+		//NB: the RepaintManager will not paint something of zero size, so we will never be bootstrapped in... kludgy... yuck.
+		setSize(1, 1);
+	}
+
+	private static
+	<T> DefaultListModel<T> createListModel(List<T> entries)
+	{
+		final
+		DefaultListModel<T> retval=new DefaultListModel<T>();
+		{
+			for (T entry : entries)
+			{
+				retval.addElement(entry);
+			}
+		}
+
+		return retval;
+	}
+
+	@Override
+	public
+	void paint(Graphics g)
+	{
+		final
+		long start=System.nanoTime();
+
+		final
+		PieMenuLayout layout=getPieMenuLayout();
+
+		final
+		Graphics2D g2=(Graphics2D)g;
+		{
+			g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		}
+
+		if (animationProgress<1.0f)
+		{
+			//Opening: no highlight or type-ahead until the wheel is fully grown.
+			paintAnimationFrame(g2, layout);
+		}
+		else
+		{
+			g2.drawImage(getWheelImage(layout), 0, 0, null);
+
+			if (typeAheadPrefix!=null)
+			{
+				paintTypeAheadFade(g2, layout);
+			}
+
+			paintHighlight(g2, layout);
+		}
+
+		paintBorder(g);
+		paintChildren(g);
+
+		PieMenuMetrics.recordPaint(System.nanoTime()-start);
+	}
+
+	/**
+	 * Fades the wedges that do not match what has been typed.
+	 */
+	private
+	void paintTypeAheadFade(Graphics2D g2, PieMenuLayout layout)
+	{
+		final
+		boolean[] matches=getTypeAheadMatches();
+
+		g2.setColor(TYPE_AHEAD_FADE);
+
+		for (int wedge=0; wedge<layoutEntries.length; wedge++)
+		{
+			final
+			int i=wedgeToIndex(wedge);
+
+			final
+			Rectangle bounds=layoutEntries[wedge].bounds;
+
+			if (i>=0 && !matches[i] && g2.hitClip(bounds.x, bounds.y, bounds.width, bounds.height))
+			{
+				g2.fill(layout.getSector(wedge));
+			}
+		}
+	}
+
+	private
+	void paintHighlight(Graphics2D g2, PieMenuLayout layout)
+	{
+		final
+		int wedge=indexToWedge(getSelectedIndex());
+
+		if (wedge>=0 && wedge<layout.getNumEntries())
+		{
+			final
+			Rectangle bounds=layoutEntries[wedge].bounds;
+
+			//NB: when only the previously-highlighted wedge is being repainted, this one may be clipped out.
+			if (g2.hitClip(bounds.x, bounds.y, bounds.width, bounds.height))
+			{
+				g2.drawImage(getHighlightImage(layout, wedge), bounds.x, bounds.y, null);
+			}
+		}
+	}
+
+	/**
+	 * While opening, the menu is just its (cached) wheel image, scaled & faded about the hub.
+	 */
+	private
+	void paintAnimationFrame(Graphics2D g2, PieMenuLayout layout)
+	{
+		final
+		BufferedImage wheelImage=getWheelImage(layout);
+
+		final
+		int size=Math.round(layout.getSize()*animationProgress);
+
+		final
+		int offset=Math.round(layout.getLocalCenter()*(1.0f-animationProgress));
+
+		final
+		Composite originalComposite=g2.getComposite();
+
+		g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, animationProgress));
+		g2.drawImage(wheelImage, offset, offset, size, size, null);
+		g2.setComposite(originalComposite);
+	}
+
+	/**
+	 * How long the menu takes to open (growing & fading in from its hub), or zero if it simply appears.
+	 */
+	private
+	int openAnimationMillis;
+
+	private
+	long animationStartNanos;
+
+	/**
+	 * How far the opening animation has gotten, from zero up to one (fully open, and not animating).
+	 */
+	private
+	float animationProgress = 1.0f;
+
+	public
+	int getOpenAnimationMillis()
+	{
+		return openAnimationMillis;
+	}
+
+	/**
+	 * @param millis how long the menu should take to open (each time it is made visible), or zero for it to simply
+	 *               appear; menus still open in this time on a slow machine, only with fewer frames (or none)
+	 */
+	public
+	void setOpenAnimationMillis(int millis)
+	{
+		if (millis<0)
+		{
+			throw new IllegalArgumentException();
+		}
+
+		this.openAnimationMillis = millis;
+	}
+
+	@Override
+	public
+	void setVisible(boolean visible)
+	{
+		final
+		boolean opening=(visible && !isVisible());
+
+		super.setVisible(visible);
+
+		if (opening && openAnimationMillis>0)
+		{
+			animationStartNanos=System.nanoTime();
+			animationProgress=0.0f;
+			PieMenuAnimator.start(this);
+		}
+		else
+		if (!visible && animationProgress<1.0f)
+		{
+			animationProgress=1.0f;
+			PieMenuAnimator.stop(this);
+		}
+	}
+
+	float getAnimationProgress()
+	{
+		return animationProgress;
+	}
+
+	/**
+	 * Called by the PieMenuAnimator, once per frame.
+	 *
+	 * @param finish true to skip to the end of the animation (e.g. if frames are being dropped)
+	 * @return true if the animation is not done yet
+	 */
+	boolean animationFrame(long now, boolean finish)
+	{
+		final
+		float t=(float)(now-animationStartNanos)/TimeUnit.MILLISECONDS.toNanos(openAnimationMillis);
+
+		if (finish || t>=1.0f)
+		{
+			animationProgress=1.0f;
+		}
+		else
+		{
+			//Ease out (cubic), so that it starts quickly & settles gently.
+			final
+			float remaining=1.0f-t;
+
+			animationProgress=1.0f-remaining*remaining*remaining;
+		}
+
+		repaint();
+
+		return animationProgress<1.0f;
+	}
+
+	/**
+	 * Renders the menu, exactly as it would currently be painted (including any highlighted wedge), into a new image
+	 * that is just large enough to hold it. This does not require the menu to be in a window, or even a display
+	 * (i.e. it works with java.awt.headless=true), which makes it suitable for testing, previews, and thumbnails.
+	 *
+	 * @return a new (translucent) image of the menu, centered on the hub
+	 */
+	public
+	BufferedImage renderToImage()
+	{
+		final
+		int size=getPieMenuLayout().getSize();
+
+		final
+		BufferedImage retval=new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+
+		final
+		Graphics2D g2=retval.createGraphics();
+
+		try
+		{
+			g2.setFont(getFont());
+			paint(g2);
+		}
+		finally
+		{
+			g2.dispose();
+		}
+
+		return retval;
+	}
+
+	private static final
+	Color HIGHLIGHT_TINT = new Color(0, 0, 0, 40);
+
+	private static final
+	Stroke HIGHLIGHT_STROKE = new BasicStroke(2.0f);
+
+	private static final
+	Color TYPE_AHEAD_FADE = new Color(255, 255, 255, 160);
+
+	/**
+	 * How far beyond its sector a highlighted wedge is drawn, since the outline is stroked on the sector's edge.
+	 */
+	private static final
+	int HIGHLIGHT_OUTSET = 2;
+
+	/**
+	 * The geometry & prerendered images for the current model, font, & colors (shared with any other menus that look
+	 * the same), or null if this menu has not been laid out (or has been removed from its container).
+	 *
+	 * The wheel image is the static part of the menu (wedges, labels, & hub), which looks the same on every repaint
+	 * until something changes... so it is drawn once & then copied. The highlighted look of each wedge (which goes at
+	 * the entry's bounds) is likewise prerendered when the wedge is first highlighted, so that painting (even while
+	 * the selection follows the mouse) is only a matter of copying images, and allocates nothing.
+	 */
+	private
+	SharedWheel sharedWheel;
+
+	private
+	BufferedImage getWheelImage(PieMenuLayout layout)
+	{
+		PieMenuMetrics.wheelImage(sharedWheel.wheelImage!=null);
+
+		return getWheelImage(sharedWheel, layoutEntries, getGraphicsConfiguration());
+	}
+
+	/**
+	 * Draws the wheel (if it has not been drawn already), reusing any of its ring images that still look the same.
+	 * This uses nothing but its arguments, so a wheel that is not yet shared (with entries that are not yet in use)
+	 * may be drawn off of the EDT.
+	 *
+	 * @param graphicsConfiguration what the images should be compatible with, or null if it is not yet known
+	 */
+	private static
+	BufferedImage getWheelImage(SharedWheel sharedWheel, PieMenuEntry[] entries,
+								GraphicsConfiguration graphicsConfiguration)
+	{
+		if (sharedWheel.wheelImage==null)
+		{
+			final
+			PieMenuLayout layout=sharedWheel.layout;
+
+			final
+			Font font=sharedWheel.getFont();
+
+			final
+			int numRings=layout.getNumRings();
+
+			final
+			List<BufferedImage> newRingImages=new ArrayList<BufferedImage>(numRings);
+
+			final
+			List<List<Object>> newRingSignatures=new ArrayList<List<Object>>(numRings);
+
+			final
+			BufferedImage image=createWheelImage(graphicsConfiguration, layout.getSize());
+
+			final
+			Graphics2D g2=image.createGraphics();
+
+			try
+			{
+				for (int ring=0; ring<numRings; ring++)
+				{
+					final
+					List<Object> signature=getRingSignature(sharedWheel, ring);
+
+					final
+					BufferedImage ringImage;
+					{
+						if (ring<sharedWheel.ringSignatures.size()
+								&& sharedWheel.ringSignatures.get(ring).equals(signature))
+						{
+							PieMenuMetrics.ringImage(true);
+							ringImage=sharedWheel.ringImages.get(ring);
+						}
+						else
+						{
+							PieMenuMetrics.ringImage(false);
+
+							if (log.isTraceEnabled())
+							{
+								log.trace("rendering ring #{}", ring);
+							}
+
+							ringImage=renderRingImage(sharedWheel, entries, graphicsConfiguration, ring);
+						}
+					}
+
+					newRingImages.add(ringImage);
+					newRingSignatures.add(signature);
+
+					final
+					int offset=layout.getLocalCenter()-layout.getRingOuterRadius(ring);
+
+					g2.drawImage(ringImage, offset, offset, null);
+				}
+
+				g2.setFont(font);
+				g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+				paintHub(g2, layout, sharedWheel.getHubColor());
+			}
+			finally
+			{
+				g2.dispose();
+			}
+
+			sharedWheel.ringImages=newRingImages;
+			sharedWheel.ringSignatures=newRingSignatures;
+			sharedWheel.highlightImages=new BufferedImage[layout.getNumEntries()];
+			sharedWheel.wheelImage=image;
+		}
+
+		return sharedWheel.wheelImage;
+	}
+
+	private static
+	BufferedImage createWheelImage(GraphicsConfiguration graphicsConfiguration, int size)
+	{
+		return createTranslucentImage(graphicsConfiguration, size, size);
+	}
+
+	private static
+	BufferedImage createTranslucentImage(GraphicsConfiguration graphicsConfiguration, int width, int height)
+	{
+		if (graphicsConfiguration==null)
+		{
+			return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		}
+		else
+		{
+			return graphicsConfiguration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+		}
+	}
+
+	/**
+	 * Must be called after getWheelImage(), which (re)allocates the highlight arrays.
+	 *
+	 * @return an image of the tint & outline that is drawn over the given wedge when it is selected
+	 */
+	private
+	BufferedImage getHighlightImage(PieMenuLayout layout, int i)
+	{
+		final
+		BufferedImage[] highlightImages=sharedWheel.highlightImages;
+
+		BufferedImage retval=highlightImages[i];
+
+		if (retval==null)
+		{
+			final
+			Shape sector=layout.getSector(i);
+
+			final
+			Rectangle bounds=layoutEntries[i].bounds;
+
+			retval=createTranslucentImage(getGraphicsConfiguration(), bounds.width, bounds.height);
+
+			final
+			Graphics2D g2=retval.createGraphics();
+
+			try
+			{
+				g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+				g2.translate(-bounds.x, -bounds.y);
+				g2.setColor(HIGHLIGHT_TINT);
+				g2.fill(sector);
+				g2.setColor(new Color(sharedWheel.getForegroundColor(i), true));
+				g2.setStroke(HIGHLIGHT_STROKE);
+				g2.draw(sector);
+			}
+			finally
+			{
+				g2.dispose();
+			}
+
+			highlightImages[i]=retval;
+		}
+
+		return retval;
+	}
+
+	/**
+	 * @return a ring-sized image, centered on the hub, of only the given ring
+	 */
+	private static
+	BufferedImage renderRingImage(SharedWheel sharedWheel, PieMenuEntry[] entries,
+								  GraphicsConfiguration graphicsConfiguration, int ring)
+	{
+		final
+		PieMenuLayout layout=sharedWheel.layout;
+
+		final
+		int ringOuterRadius=layout.getRingOuterRadius(ring);
+
+		final
+		BufferedImage retval=createWheelImage(graphicsConfiguration, 2*ringOuterRadius+1);
+
+		final
+		Graphics2D g2=retval.createGraphics();
+
+		try
+		{
+			g2.setFont(sharedWheel.getFont());
+			g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			g2.translate(ringOuterRadius-layout.getLocalCenter(), ringOuterRadius-layout.getLocalCenter());
+			paintRing(g2, sharedWheel, entries, ring);
+		}
+		finally
+		{
+			g2.dispose();
+		}
+
+		return retval;
+	}
+
+	/**
+	 * @return everything that a ring's appearance depends on, such that two rings with equal signatures look the same
+	 */
+	private static
+	List<Object> getRingSignature(SharedWheel sharedWheel, int ring)
+	{
+		final
+		PieMenuLayout layout=sharedWheel.layout;
+
+		final
+		int start=layout.getRingStart(ring);
+
+		final
+		int ringSize=layout.getRingSize(ring);
+
+		final
+		List<Object> retval=new ArrayList<Object>(6+3*ringSize);
+		{
+			retval.add(sharedWheel.getFont());
+			retval.add(layout.getPaddedLabelHeight());
+			retval.add(layout.getRingInnerRadius(ring));
+			retval.add(layout.getRingOuterRadius(ring));
+			retval.add(layout.getRingLabelWidth(ring));
+			retval.add(ringSize);
+
+			for (int i=start; i<start+ringSize; i++)
+			{
+				retval.add(layout.getLabel(i));
+				retval.add(sharedWheel.getForegroundColor(i));
+				retval.add(sharedWheel.getBackgroundColor(i));
+			}
+		}
+
+		return retval;
+	}
+
+	private static
+	void paintRing(Graphics2D g2, SharedWheel sharedWheel, PieMenuEntry[] entries, int ring)
+	{
+		final
+		PieMenuLayout layout=sharedWheel.layout;
+
+		final
+		int start=layout.getRingStart(ring);
+
+		final
+		int end=start+layout.getRingSize(ring);
+
+		final
+		int labelWidth=layout.getRingLabelWidth(ring);
+
+		//NB: measured before any label's rotation is applied, so that the truncations do not depend on the angle.
+		final
+		FontMetrics fontMetrics=g2.getFontMetrics();
+
+		for (int i=start; i<end; i++)
+		{
+			final
+			PieMenuEntry pieMenuEntry=entries[i];
+
+			//NB: every wedge is drawn, as the ring image is cached (& shared); the clip is only honored by paint().
+
+			//Primary/large colored "wedge"
+			g2.setColor(new Color(sharedWheel.getBackgroundColor(i), true));
+			g2.fill(layout.getSector(i));
+
+			// ------------- TRANSFORM BOUNDARY -----------------
+
+			final
+			TruncatedLabel truncatedLabel=TruncatedLabel.get(pieMenuEntry.truncatedLabel, layout.getLabel(i), labelWidth,
+																fontMetrics);
+
+			pieMenuEntry.truncatedLabel=truncatedLabel;
+
+			final
+			AffineTransform originalTransformation=g2.getTransform();
+
+			final
+			Shape originalClipRegion = g2.getClip();
+
+			g2.transform(layout.getLabelTransform(i));
+			{
+				g2.setColor(new Color(sharedWheel.getForegroundColor(i), true));
+
+				//A truncated label already fits its cell, so it only needs clipping if not even an ellipsis fits.
+				if (!truncatedLabel.fits())
+				{
+					g2.clip(layout.getLabelClip(i));
+				}
+
+				pieMenuEntry.shapedLabel=ShapedLabel.get(pieMenuEntry.shapedLabel, truncatedLabel.getText(), g2);
+				pieMenuEntry.shapedLabel.draw(g2, layout.getLabelX(i), layout.getLabelY(i));
+			}
+			g2.setTransform(originalTransformation);
+			g2.setClip(originalClipRegion);
+		}
+
+		g2.setColor(Color.BLACK);
+		g2.draw(layout.getRingInnerCircle(ring));
+		g2.draw(layout.getRingOuterCircle(ring));
+	}
+
+	private static
+	void paintHub(Graphics2D g2, PieMenuLayout layout, Color hubColor)
+	{
+		final
+		int localCenter=layout.getLocalCenter();
+
+		final
+		int hubRadius=layout.getHubRadius();
+
+		g2.setColor(hubColor);
+		g2.fillArc(localCenter - hubRadius, localCenter - hubRadius, 2 * hubRadius, 2 * hubRadius, 0, 360);
+		g2.setColor(Color.BLACK);
+		g2.drawArc(localCenter - hubRadius, localCenter - hubRadius, 2 * hubRadius, 2 * hubRadius, 0, 360);
+		g2.drawString("X", layout.getHubLabelX(), layout.getHubLabelY());
+	}
+
+	/**
+	 * @return the (cached) geometry for the current model & font, computing it only if something has changed
+	 */
+	PieMenuLayout getPieMenuLayout()
+	{
+		if (pieMenuLayout==null)
+		{
+			final
+			long start=System.nanoTime();
+
+			final
+			PieMenuEntry[] entries=getSemiStablePieMenuEntries();
+
+			final
+			SharedWheel previous=sharedWheel;
+
+			sharedWheel=SharedWheel.acquire(getLabels(entries), wedgeStore, getMeasuringFontMetrics(), getBackground());
+
+			if (previous!=null)
+			{
+				sharedWheel.inheritRings(previous);
+				SharedWheel.release(previous);
+			}
+
+			placeEntries(sharedWheel.layout, entries);
+
+			layoutEntries=entries;
+			pieMenuLayout=sharedWheel.layout;
+
+			PieMenuMetrics.recordLayout(System.nanoTime()-start);
+		}
+
+		return pieMenuLayout;
+	}
+
+	private static
+	void placeEntries(PieMenuLayout layout, PieMenuEntry[] entries)
+	{
+		for (int i=0; i<entries.length; i++)
+		{
+			final
+			Rectangle bounds=layout.getSector(i).getBounds();
+			{
+				bounds.grow(HIGHLIGHT_OUTSET, HIGHLIGHT_OUTSET);
+			}
+
+			entries[i].quadrant=layout.getQuadrant(i);
+			entries[i].shape=layout.getSector(i);
+			entries[i].bounds=bounds;
+		}
+	}
+
+	private
+	FontMetrics getMeasuringFontMetrics()
+	{
+		if (fontRenderContext==null)
+		{
+			return getFontMetrics(getFont());
+		}
+		else
+		{
+			return createFontMetrics(getFont(), fontRenderContext);
+		}
+	}
+
+	/**
+	 * @return metrics that measure text as it would be drawn with the given rendering context
+	 */
+	private static
+	FontMetrics createFontMetrics(Font font, FontRenderContext fontRenderContext)
+	{
+		final
+		Graphics2D g2=new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+
+		try
+		{
+			g2.setTransform(fontRenderContext.getTransform());
+			g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, fontRenderContext.getAntiAliasingHint());
+			g2.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, fontRenderContext.getFractionalMetricsHint());
+
+			return g2.getFontMetrics(font);
+		}
+		finally
+		{
+			g2.dispose();
+		}
+	}
+
+	/**
+	 * Does the work of the first paint (measuring the labels, deriving the layout, & drawing the wheel) in the
+	 * background, on the same threads that load submenus, so that the first time the menu is shown is no slower than
+	 * any other. The results are handed back to the EDT, where they are dropped if the menu has changed in the meantime.
+	 * Must be called on the EDT, like everything else in Swing.
+	 *
+	 * @param fontRenderContext how the labels will be drawn (e.g. anti-aliased), which they will be measured with from
+	 *                          now on; or null to measure them as the component does by default
+	 */
+	public
+	void prewarm(FontRenderContext fontRenderContext)
+	{
+		if (fontRenderContext==null ? this.fontRenderContext!=null : !fontRenderContext.equals(this.fontRenderContext))
+		{
+			this.fontRenderContext = fontRenderContext;
+			invalidatePieMenuLayout();
+		}
+
+		if (pieMenuLayout!=null && sharedWheel.wheelImage!=null)
+		{
+			//Already warm.
+			return;
+		}
+
+		final
+		int generation=layoutGeneration;
+
+		final
+		PieMenuEntry[] entries=getSemiStablePieMenuEntries();
+
+		final
+		String[] labels=getLabels(entries);
+
+		final
+		FontMetrics fontMetrics=getMeasuringFontMetrics();
+
+		final
+		Color hubColor=getBackground();
+
+		final
+		WedgeStore colors=wedgeStore.copy();
+
+		//NB: drawing records the shaped labels in the entries, so the background thread gets copies of its own.
+		final
+		PieMenuEntry[] copies=new PieMenuEntry[entries.length];
+		{
+			for (int i=0; i<entries.length; i++)
+			{
+				copies[i]=entries[i].copy();
+			}
+		}
+
+		subMenuExecutor.execute(new Runnable()
+		{
+			public
+			void run()
+			{
+				try
+				{
+					final
+					long start=System.nanoTime();
+
+					final
+					SharedWheel prepared=SharedWheel.prepare(labels, colors, fontMetrics, hubColor);
+
+					PieMenuMetrics.recordLayout(System.nanoTime()-start);
+
+					placeEntries(prepared.layout, copies);
+					getWheelImage(prepared, copies, null);
+
+					SwingUtilities.invokeLater(new Runnable()
+					{
+						public
+						void run()
+						{
+							prewarmed(generation, prepared, entries, copies);
+						}
+					});
+				}
+				catch (Exception e)
+				{
+					log.error("unable to prewarm pie menu", e);
+				}
+			}
+		});
+	}
+
+	private
+	void prewarmed(int generation, SharedWheel prepared, PieMenuEntry[] entries, PieMenuEntry[] copies)
+	{
+		if (generation!=layoutGeneration)
+		{
+			log.debug("discarding a prewarmed layout, as the menu has since changed");
+			return;
+		}
+
+		final
+		SharedWheel adopted=SharedWheel.adopt(prepared);
+
+		if (pieMenuLayout!=null)
+		{
+			//Laid out anyway (e.g. by a hit test) while this was in flight, so it is already using the adopted wheel.
+			SharedWheel.release(adopted);
+			return;
+		}
+
+		if (sharedWheel!=null)
+		{
+			SharedWheel.release(sharedWheel);
+		}
+
+		sharedWheel=adopted;
+
+		placeEntries(adopted.layout, entries);
+
+		for (int i=0; i<entries.length; i++)
+		{
+			entries[i].truncatedLabel=copies[i].truncatedLabel;
+			entries[i].shapedLabel=copies[i].shapedLabel;
+		}
+
+		layoutEntries=entries;
+		pieMenuLayout=adopted.layout;
+
+		updateBounds();
+	}
+
+	/**
+	 * Lets go of the (possibly shared) geometry & images, so that a menu that is no longer on screen does not keep
+	 * them alive; they will be found (or recreated) if it is added again.
+	 */
+	@Override
+	public
+	void removeNotify()
+	{
+		super.removeNotify();
+
+		disposeSubMenuLabels();
+
+		if (animationProgress<1.0f)
+		{
+			animationProgress=1.0f;
+			PieMenuAnimator.stop(this);
+		}
+
+		if (sharedWheel!=null)
+		{
+			SharedWheel.release(sharedWheel);
+			sharedWheel=null;
+			pieMenuLayout=null;
+			layoutEntries=null;
+		}
+	}
+
+	/**
+	 * @return the entry for the given index, as of the current layout, or null if it is not on the current page
+	 */
+	PieMenuEntry getPieMenuEntry(int index)
+	{
+		getPieMenuLayout();
+
+		final
+		int wedge=indexToWedge(index);
+
+		return (wedge<0 ? null : layoutEntries[wedge]);
+	}
+
+	/**
+	 * Must only be called with a current layout.
+	 *
+	 * @return the wedge that shows the given model index, or -1 if it is not on the current page
+	 */
+	private
+	int indexToWedge(int index)
+	{
+		if (pageSize==0 || index<0)
+		{
+			return index;
+		}
+
+		final
+		int wedge=index-pageStart;
+
+		return (wedge>=0 && wedge<pageEntries.length ? wedge : -1);
+	}
+
+	/**
+	 * Must only be called with a current layout.
+	 *
+	 * @return the model index that the given wedge shows, or -1 for the "more" wedge (or no wedge)
+	 */
+	private
+	int wedgeToIndex(int wedge)
+	{
+		if (pageSize==0 || wedge<0)
+		{
+			return wedge;
+		}
+
+		return (wedge<pageEntries.length ? pageStart+wedge : -1);
+	}
+
+	/**
+	 * @return the entry for the given model index, if it has been created (which, when paging, only happens for the
+	 *         elements on the current page)
+	 */
+	private
+	PieMenuEntry getCreatedPieMenuEntry(int index)
+	{
+		if (pageSize==0)
+		{
+			return pieMenuEntries.get(index);
+		}
+
+		final
+		int wedge=index-pageStart;
+
+		return (pageEntries!=null && wedge>=0 && wedge<pageEntries.length ? pageEntries[wedge] : null);
+	}
+
+	private
+	Iterable<PieMenuEntry> getCreatedPieMenuEntries()
+	{
+		if (pageSize==0)
+		{
+			return pieMenuEntries;
+		}
+		else
+		if (pageEntries==null)
+		{
+			return Collections.emptyList();
+		}
+		else
+		{
+			return Arrays.asList(pageEntries);
+		}
+	}
+
+	public
+	int getPageSize()
+	{
+		return pageSize;
+	}
+
+	/**
+	 * Lets the menu be used with very large models (e.g. thousands of recent files), by only showing (and only
+	 * creating the geometry, colors, & labels for) one page of its elements at a time. When there is more than one
+	 * page, an extra "more" wedge is added, which goes to the next page when clicked.
+	 *
+	 * @param pageSize the most elements that are shown at once, or zero to always show them all
+	 */
+	public
+	void setPageSize(int pageSize)
+	{
+		if (pageSize<0)
+		{
+			throw new IllegalArgumentException();
+		}
+
+		if (pageSize==this.pageSize)
+		{
+			return;
+		}
+
+		if (pageSize==0)
+		{
+			pieMenuEntries=new ShadowList<PieMenuEntry>(listModel);
+			wedgeStore=new WedgeStore(listModel);
+		}
+		else
+		if (pieMenuEntries!=null)
+		{
+			pieMenuEntries.dispose();
+			pieMenuEntries=null;
+			wedgeStore.dispose();
+			wedgeStore=null;
+		}
+
+		this.pageSize = pageSize;
+		lastWedgeHue=0.0f;
+		showPage(0);
+	}
+
+	/**
+	 * @return the model index of the first element on the current page
+	 */
+	public
+	int getPageStart()
+	{
+		return pageStart;
+	}
+
+	/**
+	 * Shows the next page of elements (or the first, after the last), as clicking the "more" wedge does.
+	 */
+	public
+	void nextPage()
+	{
+		if (pageSize>0 && listModel.getSize()>pageSize)
+		{
+			final
+			int next=pageStart+pageSize;
+
+			showPage(next<listModel.getSize() ? next : 0);
+		}
+	}
+
+	/**
+	 * Shows the page that the given element is on (e.g. after type-ahead has selected it), as there is no scrolling.
+	 */
+	@Override
+	public
+	void ensureIndexIsVisible(int index)
+	{
+		if (pageSize>0 && index>=0 && index<listModel.getSize() && index-index%pageSize!=pageStart)
+		{
+			showPage(index-index%pageSize);
+		}
+	}
+
+	private
+	void showPage(int start)
+	{
+		pageStart=start;
+		pageEntries=null;
+		invalidatePieMenuLayout();
+	}
+
+	/**
+	 * Discards the cached geometry (and with it, the prerendered wheel), and arranges for the bounds to be brought
+	 * up-to-date (once) before the next paint.
+	 */
+	private
+	void invalidatePieMenuLayout()
+	{
+		layoutGeneration++;
+		pieMenuLayout=null;
+		layoutEntries=null;
+
+		if (!boundsUpdatePending)
+		{
+			boundsUpdatePending=true;
+
+			SwingUtilities.invokeLater(new Runnable()
+			{
+				public
+				void run()
+				{
+					boundsUpdatePending=false;
+					updateBounds();
+					repaint();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Since our size depends on the font & labels, we must set our own bounds... but never from within paint().
+	 */
+	private
+	void updateBounds()
+	{
+		if (centerPoint==null)
+		{
+			return;
+		}
+
+		//TODO: BUG: this is off by menu bar height, SwingUtilities.convertPoint() would be better (but used to thrash)
+		final
+		Rectangle desiredBounds=getPieMenuLayout().getBounds(centerPoint);
+
+		if (!getBounds().equals(desiredBounds))
+		{
+			log.debug("bounds: {} -> {}", getBounds(), desiredBounds);
+			setBounds(desiredBounds);
+		}
+	}
+
+	/**
+	 * NB: whatever the look-and-feel, as it would only be asked to paint (& repaint) rows that the menu does not have.
+	 */
+	@Override
+	public
+	void updateUI()
+	{
+		setUI(new PieMenuListUI());
+	}
 
+	@Override
 	public
-	PieMenu(List<T> entries)
+	void setFont(Font font)
 	{
-		super(new DefaultListModel<T>());
-		this.listModel = (DefaultListModel<T>) getModel();
-
-		int i = 0;
+		super.setFont(font);
 
-		for (T entry : entries)
+		//NB: this is called by the JList constructor, before we have a model of our own.
+		if (listModel!=null)
 		{
-			listModel.add(i, entry);
-			i++;
+			invalidatePieMenuLayout();
 		}
-
-		this.pieMenuEntries = new ShadowList<PieMenuEntry>(listModel);
-
-		//NB: the RepaintManager will not paint something of zero size, so we will never be bootstrapped in... kludgy... yuck.
-		setSize(1, 1);
 	}
 
 	@Override
 	public
-	void paint(Graphics g)
+	void setBackground(Color color)
 	{
-		final
-		Point globalCenter;
+		super.setBackground(color);
+
+		//NB: this is called by the JList constructor, before we have a model of our own.
+		if (listModel!=null)
 		{
-			//TODO: BUG: the fact that this thrashes indicates to me that setting the bounds in paint() is inherently unsafe
-			//globalCenter=SwingUtilities.convertPoint(getParent(), this.centerPoint, this); <-- thrashes
-			globalCenter=this.centerPoint; // <-- off by menu bar height
-			log.debug("globalCenter = {}", globalCenter);
+			//NB: the hub color is part of what a (shared) wheel looks like.
+			invalidatePieMenuLayout();
 		}
+	}
 
-		final
-		PieMenuEntry[] entries=getSemiStablePieMenuEntries();
-
-		final
-		int numEntries=entries.length;
-
-		final
-		FontMetrics fontMetrics = g.getFontMetrics();
+	/**
+	 * The wedge that was selected as of the last selection change, which will need repainting when it is unselected.
+	 */
+	private
+	int highlightedIndex = -1;
 
+	public
+	void valueChanged(ListSelectionEvent listSelectionEvent)
+	{
 		final
-		int paddedLabelHeight=2*LABEL_PADDING+fontMetrics.getHeight();
+		int i=getSelectedIndex();
 
-		final
-		int innerRadius;
+		if (i!=highlightedIndex)
 		{
-			final
-			double pedanticRadiansPerWedge=2*Math.PI/numEntries;
+			repaintWedge(highlightedIndex);
+			repaintWedge(i);
+			highlightedIndex=i;
+		}
 
-			final
-			int grabbableTargetBound = 40;
+		if (!listSelectionEvent.getValueIsAdjusting())
+		{
+			if (i>=0)
+			{
+				requestSubMenu(i);
+			}
+		}
+	}
 
-			final
-			int labelBound = (int) (paddedLabelHeight / Math.tan(pedanticRadiansPerWedge));
+	/**
+	 * Repaints only the area of the given wedge (the RepaintManager will merge this with any other dirty regions), or
+	 * the whole menu if there is no current layout to say where the wedge is.
+	 */
+	private
+	void repaintWedge(int index)
+	{
+		if (index<0)
+		{
+			return;
+		}
 
-			innerRadius=Math.max(grabbableTargetBound, labelBound);
+		if (layoutEntries==null)
+		{
+			repaint();
+			return;
 		}
 
 		final
-		int allocatedLabelWidth;
-		{
-			final
-			BasicTableWidthOptimizer optimizer=new BasicTableWidthOptimizer(fontMetrics);
+		int wedge=indexToWedge(index);
 
-			allocatedLabelWidth=optimizer.getPixelsWide(getLabels(entries));
+		if (wedge>=layoutEntries.length)
+		{
+			repaint();
 		}
+		else
+		if (wedge>=0)
+		{
+			repaint(layoutEntries[wedge].bounds);
+		}
+	}
 
-		log.debug("labels @ {} x {}", allocatedLabelWidth, paddedLabelHeight);
+	public
+	void intervalAdded(ListDataEvent listDataEvent)
+	{
+		typeAheadMatches=null;
+		modelChanged();
+	}
 
-		final
-		int outerRadius=innerRadius+2*LABEL_PADDING+allocatedLabelWidth;
+	public
+	void intervalRemoved(ListDataEvent listDataEvent)
+	{
+		typeAheadMatches=null;
+		modelChanged();
+	}
 
-		log.debug("innerRadius = {} & outerRadius = {}", innerRadius, outerRadius);
+	public
+	void contentsChanged(ListDataEvent listDataEvent)
+	{
+		typeAheadMatches=null;
+		modelChanged();
+	}
 
-		final
-		Rectangle desiredBounds=new Rectangle(globalCenter.x - outerRadius, globalCenter.y - outerRadius, 2 * outerRadius +1, 2 * outerRadius+1);
+	private
+	void modelChanged()
+	{
+		if (pageSize>0)
 		{
-			//TODO: is there a better way? Seems odd to set bounds *INSIDE* the paint function... but we need the fontMetrics?!?!
-			if (getBounds().equals(desiredBounds))
+			if (pageStart>=listModel.getSize())
 			{
-				log.debug("bounds: {}", desiredBounds);
-			}
-			else
-			{
-				log.debug("started with wrong bounds... repaint: {} != {}", getBounds(), desiredBounds);
-				setBounds(desiredBounds);
-				repaint();
-				return;
+				pageStart=0;
 			}
+
+			pageEntries=null;
 		}
 
-		final
-		int localCenterX=((int)desiredBounds.getWidth()/2);
+		invalidatePieMenuLayout();
+	}
 
-		final
-		int localCenterY=((int)desiredBounds.getHeight()/2);
+	/**
+	 * What has been typed (upper-cased), as of the last type-ahead search, or null if nothing has been typed recently.
+	 */
+	private
+	String typeAheadPrefix;
 
-		final
-		Graphics2D g2=(Graphics2D)g;
+	/**
+	 * Which wedges match the typeAheadPrefix (either by their own label, or the label of something in their loaded
+	 * submenu), or null if that must be recomputed.
+	 */
+	private
+	boolean[] typeAheadMatches;
+
+	private
+	Timer typeAheadTimer;
+
+	/**
+	 * The labels of each loaded submenu (by its model), sorted for type-ahead. These follow their models (which may be
+	 * cached & shared well beyond this menu), so they are only kept while something has been typed, and are disposed
+	 * as soon as the type-ahead ends (or the menu is removed).
+	 */
+	private final
+	Map<ListModel<?>, LabelPrefixIndex> subMenuLabels = new IdentityHashMap<ListModel<?>, LabelPrefixIndex>();
+
+	/**
+	 * Listens to the submenus in subMenuLabels, whose changes may change which wedges match what has been typed.
+	 */
+	private final
+	ListDataListener subMenuListener = new ListDataListener()
+	{
+		public
+		void intervalAdded(ListDataEvent listDataEvent)
 		{
-			g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			subMenuChanged();
 		}
 
-		g2.setColor(Color.BLACK);
-
-		Shape shape=new Ellipse2D.Double(localCenterX-innerRadius, localCenterY-innerRadius, 2*innerRadius, 2*innerRadius);
+		public
+		void intervalRemoved(ListDataEvent listDataEvent)
 		{
-			g2.draw(shape);
+			subMenuChanged();
 		}
 
-		shape=new Ellipse2D.Double(localCenterX-outerRadius, localCenterY-outerRadius, 2*outerRadius, 2*outerRadius);
+		public
+		void contentsChanged(ListDataEvent listDataEvent)
 		{
-			g2.draw(shape);
+			subMenuChanged();
 		}
+	};
 
-		final
-		double degreesPerWedge;
+	private
+	void subMenuChanged()
+	{
+		if (typeAheadPrefix!=null)
+		{
+			typeAheadMatches=null;
+			repaint();
+		}
+	}
 
-		final
-		double radiansPerWedge;
+	/**
+	 * Stops following the submenus' models, and forgets their labels.
+	 */
+	private
+	void disposeSubMenuLabels()
+	{
+		for (Map.Entry<ListModel<?>, LabelPrefixIndex> entry : subMenuLabels.entrySet())
 		{
-			radiansPerWedge=Math.min(45.0, 2*Math.PI/numEntries);
-			degreesPerWedge=Math.toDegrees(radiansPerWedge);
+			entry.getKey().removeListDataListener(subMenuListener);
+			entry.getValue().dispose();
+		}
 
-			final
-			int estimatedWedgeH=(int)(outerRadius*Math.sin(radiansPerWedge));
+		subMenuLabels.clear();
+	}
 
-			log.debug("estimatedWedgeHeight = {}px @ {} rad", estimatedWedgeH, radiansPerWedge);
+	/**
+	 * @return the (type-ahead) labels of the given submenu, which are followed until disposeSubMenuLabels()
+	 */
+	private
+	LabelPrefixIndex getSubMenuLabels(ListModel<?> subMenuModel)
+	{
+		LabelPrefixIndex retval=subMenuLabels.get(subMenuModel);
 
-			if (estimatedWedgeH<paddedLabelHeight)
-			{
-				throw new UnsupportedOperationException("unimplemented; too many items for a single ring, need to implement outer ring logic.");
-			}
+		if (retval==null)
+		{
+			retval=new LabelPrefixIndex(subMenuModel);
+			subMenuModel.addListDataListener(subMenuListener);
+			subMenuLabels.put(subMenuModel, retval);
 		}
 
+		return retval;
+	}
+
+	/**
+	 * Called by the list UI as keys are typed (which it accumulates into a prefix), so that typing selects the next
+	 * wedge whose label (or a label in whose submenu) starts with what has been typed. The wedges that do not match
+	 * are faded until typing stops.
+	 */
+	@Override
+	public
+	int getNextMatch(String prefix, int startIndex, Position.Bias bias)
+	{
 		final
-		AffineTransform toCenter=new AffineTransform();
+		int size=listModel.getSize();
+
+		if (prefix==null)
 		{
-			toCenter.translate(-innerRadius, -innerRadius);
+			throw new IllegalArgumentException();
 		}
 
-		for (int i=0; i<numEntries; i++)
+		if (startIndex<0 || startIndex>=size)
 		{
-			final
-			PieMenuEntry pieMenuEntry=entries[i];
-
-			/*
-			The offsetAngle is the principal "angle" of the wedge, as defined by its "lower" boundary leg.
-			Zero radians & zero degrees should point "right".
-			 */
-			final
-			double highAngle=(HALF_PI-radiansPerWedge*(i))%TWO_PI;
+			throw new IllegalArgumentException();
+		}
 
-			final
-			double lowAngle=(HALF_PI-radiansPerWedge*(i+1))%TWO_PI;
-			{
-				log.debug("{} < angle < {}", lowAngle, highAngle);
-			}
+		setTypeAheadPrefix(prefix);
 
-			final
-			PieMenuQuadrant quadrant;
-			{
-				quadrant = computeQuadrant(lowAngle, highAngle);
-				pieMenuEntry.quadrant = quadrant;
-				log.debug("{} quadrant = {}; {} < {}", pieMenuEntry.label, quadrant, lowAngle, highAngle);
-			}
+		final
+		boolean[] matches=getTypeAheadMatches();
 
-			final
-			int wedgeW =(int)(outerRadius*Math.cos(lowAngle));
+		final
+		int step=(bias==Position.Bias.Backward ? size-1 : 1);
 
-			final
-			int wedgeH=(int)(outerRadius*Math.sin(lowAngle));
+		int i=startIndex;
 
-			//Primary/large colored "wedge"
-			//if (i==1)
+		do
+		{
+			if (matches[i])
 			{
-				g2.setColor(pieMenuEntry.backgroundColor);
-
-				//TODO: Why are these angles so far off from what I would expect?
-				double startDegrees=Math.toDegrees(lowAngle);
+				return i;
+			}
 
-				log.debug("drawing '{}' arc, {} rad -> {} degrees", pieMenuEntry.label, lowAngle, startDegrees);
-				shape = new Arc2D.Double(0, 0, getWidth(), getHeight(),
-												startDegrees, degreesPerWedge,
-												Arc2D.PIE);
+			i=(i+step)%size;
+		}
+		while (i!=startIndex);
 
-				g2.fill(shape);
-				pieMenuEntry.shape=shape;
-			}
+		return -1;
+	}
 
-			// ------------- TRANSFORM BOUNDARY -----------------
+	public
+	String getTypeAheadPrefix()
+	{
+		return typeAheadPrefix;
+	}
 
+	/**
+	 * Fades the wedges that do not match the given prefix (case-insensitively), until the list's type-ahead timeout
+	 * ("List.timeFactor") passes without another call.
+	 *
+	 * @param prefix what has been typed, or null to stop fading
+	 */
+	public
+	void setTypeAheadPrefix(String prefix)
+	{
+		if (typeAheadTimer==null)
+		{
 			final
-			AffineTransform originalTransformation=g2.getTransform();
+			Object timeFactor=UIManager.get("List.timeFactor");
 
 			final
-			AffineTransform locallyCentered=new AffineTransform();
-			{
-				locallyCentered.concatenate(originalTransformation);
-				locallyCentered.translate(localCenterX, localCenterY);
-			}
+			int delay=(timeFactor instanceof Number ? ((Number)timeFactor).intValue() : 1000);
 
-			g2.setTransform(locallyCentered);
+			typeAheadTimer=new Timer(delay, new ActionListener()
 			{
-				final
-				String label=pieMenuEntry.label;
-
-				final
-				int w=fontMetrics.stringWidth(label);
-
-				final
-				int h=fontMetrics.getHeight();
-
-				//USED TO draw black lines between the wedges, now does not work (affineTransformation moved).
-				//g2.setColor(Color.BLACK);
-				//g2.drawLine(innerRadius, 0, outerRadius, 0);
-
-				final
-				String debugLabel;
+				public
+				void actionPerformed(ActionEvent actionEvent)
 				{
-					if (DEBUG)
-					{
-						debugLabel=label;
-						//debugLabel=pieMenuEntry.quadrant+": "+label;
-						//debugLabel=String.format("%1f %s: %s", offsetAngle, pieMenuEntry.quadrant, label);
-					}
-					else
-					{
-						debugLabel=label;
-					}
+					setTypeAheadPrefix(null);
 				}
+			});
+			typeAheadTimer.setRepeats(false);
+		}
 
-				final
-				Shape originalClipRegion = g2.getClip();
+		final
+		String key=(prefix==null ? null : LabelPrefixIndex.toKey(prefix));
 
-				g2.setColor(pieMenuEntry.foregroundColor);
+		if (key==null ? typeAheadPrefix!=null : !key.equals(typeAheadPrefix))
+		{
+			typeAheadPrefix=key;
+			typeAheadMatches=null;
+			repaint();
+		}
 
-				if (quadrant == PieMenuQuadrant.EAST)
-				{
-					//Left-centered label, no rotation, against the inner radius.
-					g2.setClip(new Rectangle2D.Double(innerRadius+LABEL_PADDING, LABEL_PADDING-paddedLabelHeight+LABEL_PADDING, allocatedLabelWidth, paddedLabelHeight));
-					g2.drawString(debugLabel, innerRadius+LABEL_PADDING, LABEL_PADDING);
-				}
+		if (key==null)
+		{
+			typeAheadTimer.stop();
+			disposeSubMenuLabels();
+		}
+		else
+		{
+			typeAheadTimer.restart();
+		}
+	}
 
-				if (quadrant == PieMenuQuadrant.WEST)
-				{
-					//Right-centered label, no rotation, against the outer/left radius.
-					//g2.setClip(new Rectangle2D.Double(LABEL_PADDING-outerRadius, LABEL_PADDING-outerRadius-paddedLabelHeight+LABEL_PADDING, allocatedLabelWidth, paddedLabelHeight));
-					g2.setClip(new Rectangle2D.Double(LABEL_PADDING-outerRadius, LABEL_PADDING-paddedLabelHeight+LABEL_PADDING, allocatedLabelWidth, paddedLabelHeight));
-					g2.drawString(debugLabel, LABEL_PADDING-outerRadius, LABEL_PADDING);
-				}
+	private
+	boolean[] getTypeAheadMatches()
+	{
+		final
+		int size=listModel.getSize();
 
-				if (quadrant==PieMenuQuadrant.NORTH_EAST)
-				{
-					//The first & native transform... left-aligned text, anchored at the lower wedge border.
-					g2.transform(AffineTransform.getRotateInstance(-lowAngle));
-					g2.setClip(new Rectangle2D.Double(innerRadius + LABEL_PADDING,
-														 -LABEL_PADDING - paddedLabelHeight + LABEL_PADDING,
-														 allocatedLabelWidth, paddedLabelHeight));
-					g2.drawString(debugLabel, innerRadius+LABEL_PADDING, -LABEL_PADDING);
-				}
+		if (typeAheadMatches==null || typeAheadMatches.length!=size)
+		{
+			final
+			boolean[] matches=new boolean[size];
 
-				if (quadrant==PieMenuQuadrant.SOUTH_EAST)
-				{
-					//The second transform is quite similar... left-aligned text, anchored at the upper wedge border.
-					//Offset the rotation & translation a bit, to make the words appear closer to the readable position
-					g2.transform(AffineTransform.getRotateInstance(-highAngle));
-					g2.setClip(new Rectangle2D.Double(innerRadius+LABEL_PADDING, h+LABEL_PADDING-paddedLabelHeight+LABEL_PADDING, allocatedLabelWidth, paddedLabelHeight));
-					g2.drawString(debugLabel, innerRadius+LABEL_PADDING, h+LABEL_PADDING);
-				}
+			if (labelPrefixIndex==null)
+			{
+				labelPrefixIndex=new LabelPrefixIndex(listModel);
+			}
 
-				if (quadrant==PieMenuQuadrant.SOUTH_WEST)
-				{
-					g2.transform(AffineTransform.getRotateInstance(Math.PI-lowAngle));
-					g2.setClip(new Rectangle2D.Double(LABEL_PADDING-outerRadius,
-														 paddedLabelHeight - LABEL_PADDING - paddedLabelHeight + LABEL_PADDING,
-														 allocatedLabelWidth, paddedLabelHeight));
-					g2.drawString(debugLabel, LABEL_PADDING - outerRadius, paddedLabelHeight-LABEL_PADDING);
-				}
+			labelPrefixIndex.markMatches(typeAheadPrefix, matches);
+
+			for (int i=0; i<size; i++)
+			{
+				final
+				PieMenuEntry pieMenuEntry=getCreatedPieMenuEntry(i);
 
-				if (quadrant==PieMenuQuadrant.NORTH_WEST)
+				if (matches[i] || pieMenuEntry==null || pieMenuEntry.subMenuModel==null)
 				{
-					g2.transform(AffineTransform.getRotateInstance(Math.PI-highAngle));
-					g2.setClip(new Rectangle2D.Double(LABEL_PADDING-outerRadius,
-														 -LABEL_PADDING - paddedLabelHeight + LABEL_PADDING,
-														 allocatedLabelWidth, paddedLabelHeight));
-					g2.drawString(debugLabel, LABEL_PADDING-outerRadius, -LABEL_PADDING);
+					continue;
 				}
 
-				//log.debug("drawString('{}', {}+{}, {}+{})", label, x, w, y, h);
-				//g2.drawString(debugLabel, innerRadius+LABEL_PADDING, -LABEL_PADDING);
-				//g2.drawRect(x, y, w, -h);
-				g2.setClip(originalClipRegion);
+				matches[i]=getSubMenuLabels(pieMenuEntry.subMenuModel).hasMatch(typeAheadPrefix);
 			}
-			g2.setTransform(originalTransformation);
-
-			//break;
-		}
 
-		//Center hub
-		{
-			g2.setColor(getBackground());
-			g2.fillArc(localCenterX - innerRadius,
-						  localCenterY - innerRadius, 2 * innerRadius, 2 * innerRadius, 0, 360);
-			g2.setColor(Color.BLACK);
-			g2.drawArc(localCenterX - innerRadius, localCenterY - innerRadius, 2 * innerRadius, 2 * innerRadius, 0, 360);
-			g.setColor(Color.BLACK);
-			g2.drawString("X", localCenterX-(fontMetrics.charWidth('X')/2), localCenterY +(fontMetrics.getHeight()/2));
+			typeAheadMatches=matches;
 		}
 
-		paintBorder(g);
-		paintChildren(g);
+		return typeAheadMatches;
 	}
 
-	private static final
-	double TWO_PI=2*Math.PI;
-
-	private static final
-	double HALF_PI=Math.PI/2;
-
-	private static final
-	double PI_AND_A_HALF=Math.PI*1.5;
-
 	private
-	PieMenuQuadrant computeQuadrant(double lowAngle, double highAngle)
+	PieMenuEntry[] getSemiStablePieMenuEntries()
 	{
-		if (lowAngle<0) lowAngle+=TWO_PI;
-		if (lowAngle>TWO_PI) lowAngle-=TWO_PI;
-		if (highAngle<0) highAngle+=TWO_PI;
-		if (highAngle>TWO_PI) highAngle-=TWO_PI;
-
-		assert(lowAngle>=0);
-		assert(highAngle>=0);
-		assert(lowAngle<=TWO_PI);
-		assert(highAngle<=TWO_PI);
-
-		//TODO: if '0' or 'PI' is within the given range, use a special 'quadrant' (WEST or EAST).
-
-		if (lowAngle>highAngle)
+		if (pageSize>0)
 		{
-			return PieMenuQuadrant.EAST;
+			return getPagePieMenuEntries();
 		}
 
 		final
-		double median=(lowAngle+highAngle)/2;
+		int l=listModel.getSize();
 
-		if (median < HALF_PI)
+		final
+		PieMenuEntry[] retval=new PieMenuEntry[l];
 		{
-			return PieMenuQuadrant.NORTH_EAST;
-		}
+			for (int i=0; i<l; i++)
+			{
+				final
+				Object o=listModel.getElementAt(i);
 
-		if (lowAngle < Math.PI && Math.PI < highAngle)
-		{
-			return PieMenuQuadrant.WEST;
-		}
+				PieMenuEntry pieMenuEntry=pieMenuEntries.get(i);
 
-		if (median<=Math.PI)
-		{
-			return PieMenuQuadrant.NORTH_WEST;
-		}
+				if (pieMenuEntry==null)
+				{
+					pieMenuEntry=createPieMenuEntry(o);
+					pieMenuEntries.set(i, pieMenuEntry);
+				}
+				else
+				{
+					assert(pieMenuEntry.value==o);
+					pieMenuEntry.label=o.toString(); //In case it changes?!?
+				}
 
-		if (median<PI_AND_A_HALF)
-		{
-			return PieMenuQuadrant.SOUTH_WEST;
+				if (!wedgeStore.isColored(i))
+				{
+					colorWedge(wedgeStore, i, pieMenuEntry.label);
+				}
+
+				retval[i]=pieMenuEntry;
+			}
 		}
 
-		return PieMenuQuadrant.SOUTH_EAST;
+		return retval;
 	}
 
+	/**
+	 * @return the entries of the current page (creating them if needed), followed by the "more" entry if there are
+	 *         other pages
+	 */
 	private
-	PieMenuEntry[] getSemiStablePieMenuEntries()
+	PieMenuEntry[] getPagePieMenuEntries()
 	{
 		final
-		int l=listModel.getSize();
+		int size=listModel.getSize();
 
 		final
-		List<PieMenuEntry> retval=new ArrayList<PieMenuEntry>(l);
+		int l=Math.min(pageSize, size-pageStart);
+
+		final
+		boolean more=(size>pageSize);
+
+		if (pageEntries==null)
 		{
+			//NB: each page starts from the same hue, so that it is colored the same every time it comes around.
+			lastWedgeHue=0.0f;
+			pageEntries=new PieMenuEntry[l];
+			wedgeStore=new WedgeStore(more ? l+1 : l);
+
 			for (int i=0; i<l; i++)
 			{
-				final
-				Object o=listModel.get(i);
+				pageEntries[i]=createPieMenuEntry(listModel.getElementAt(pageStart+i));
+				colorWedge(wedgeStore, i, pageEntries[i].label);
+			}
+
+			if (more)
+			{
+				wedgeStore.setColors(l, Color.BLACK, MORE_BACKGROUND);
+			}
+		}
+		else
+		{
+			for (PieMenuEntry pieMenuEntry : pageEntries)
+			{
+				pieMenuEntry.label=pieMenuEntry.value.toString(); //In case it changes?!?
+			}
+		}
 
-				PieMenuEntry pieMenuEntry=pieMenuEntries.get(i);
+		if (!more)
+		{
+			return pageEntries.clone();
+		}
 
-				if (pieMenuEntry==null)
-				{
-					pieMenuEntry=createPieMenuEntry(o);
-					pieMenuEntries.set(i, pieMenuEntry);
-				}
-				else
-				{
-					assert(pieMenuEntry.value==o);
-					pieMenuEntry.label=o.toString(); //In case it changes?!?
-				}
+		if (moreEntry==null)
+		{
+			moreEntry=new PieMenuEntry();
+			moreEntry.label=MORE_LABEL;
+		}
 
-				retval.add(pieMenuEntry);
-			}
+		final
+		PieMenuEntry[] retval=Arrays.copyOf(pageEntries, l+1);
+		{
+			retval[l]=moreEntry;
 		}
 
-		return retval.toArray(new PieMenuEntry[l]);
+		return retval;
 	}
 
 	private
@@ -480,28 +1715,49 @@ class PieMenu<T> extends JList<T> implements MouseMotionListener, MouseListener
 	private static final
 	float WEDGE_HUE_SEPARATION = 0.366f;
 
-	private static final
-	float WEDGE_BACKGROUND_SATURATION = 0.3f;
-
-	private static final
-	float WEDGE_BACKGROUND_BRIGHTNESS = 0.94f;
-
-	private static final
-	float WEDGE_TEXT_SATURATION = 1.0f;
+	/**
+	 * @return how many wedges a gradient is spread over (i.e. a page's worth, when paging)
+	 */
+	private
+	int getNumColoredWedges()
+	{
+		final
+		int size=listModel.getSize();
 
-	private static final
-	float WEDGE_TEXT_BRIGHTNESS = 0.3f;
+		return (pageSize>0 ? Math.min(pageSize, size) : size);
+	}
 
 	//TODO: if object isa PieMenuEntry, then use it directly, filling in any missing details, and updating any state (like lastWedgeHue).
-	private
 	PieMenuEntry createPieMenuEntry(Object o)
 	{
 		final
-		String label;
+		PieMenuEntry retval = new PieMenuEntry();
 		{
-			label=o.toString();
+			retval.value=o;
+			retval.label=o.toString();
+			//Rectangle2D bounds;
+			//ListModel<?>    subMenuModel;
+			//later: PieMenuQuadrant quadrant;
+			//Image           icon;
 		}
 
+		return retval;
+	}
+
+	/**
+	 * Colors the given wedge by the next hue of the current colorization scheme.
+	 */
+	private
+	void colorWedge(WedgeStore wedgeStore, int i, String label)
+	{
+		final
+		float hue=createHue(label);
+
+		wedgeStore.setColors(i, WedgePalette.getTextColor(hue), WedgePalette.getBackgroundColor(hue));
+	}
+
+	float createHue(String label)
+	{
 		final
 		float hue;
 		{
@@ -518,7 +1774,7 @@ class PieMenu<T> extends JList<T> implements MouseMotionListener, MouseListener
 				{
 					//Walking around the color wheel...
 					final
-					float partial=(1.0f/listModel.getSize());
+					float partial=(1.0f/getNumColoredWedges());
 
 					hue=(lastWedgeHue+partial)%1.0f;
 					break;
@@ -527,19 +1783,7 @@ class PieMenu<T> extends JList<T> implements MouseMotionListener, MouseListener
 				case LABEL_HASH:
 				{
 					//Stateless... does not depend on any other wedge color...
-					final
-					double hash=label.toLowerCase().hashCode();
-
-					final
-					double exponent=Math.ceil(Math.log10(hash));
-
-					final
-					double magnitude=Math.pow(10, exponent);
-
-					hue=(float)Math.abs(hash/magnitude);
-
-					log.debug("hash-color: '{}' -> {} -> {} -> {} -> {}", label, hash, exponent, magnitude, hue);
-
+					hue=LabelHueStore.getHue(label);
 					break;
 				}
 
@@ -552,51 +1796,27 @@ class PieMenu<T> extends JList<T> implements MouseMotionListener, MouseListener
 			lastWedgeHue=hue;
 		}
 
-		final
-		PieMenuEntry retval = new PieMenuEntry();
-		{
-			retval.enabled = true;
-			retval.value=o;
-			retval.label = label;
-			//Rectangle2D bounds;
-			//ListModel<?>    subMenuModel;
-			//later: PieMenuQuadrant quadrant;
-			//Image           icon;
-			retval.hue=hue;
-			retval.foregroundColor=deriveTextColor(hue);
-			retval.backgroundColor=deriveBackgroundColor(hue);
-		}
-
-		return retval;
-	}
-
-	private
-	Color deriveTextColor(float hue)
-	{
-		return new Color(Color.HSBtoRGB(hue, WEDGE_TEXT_SATURATION, WEDGE_TEXT_BRIGHTNESS));
-	}
-
-	private
-	Color deriveBackgroundColor(float hue)
-	{
-		return new Color(Color.HSBtoRGB(hue, WEDGE_BACKGROUND_SATURATION, WEDGE_BACKGROUND_BRIGHTNESS));
+		return hue;
 	}
 
 	private static
-	List<String> getLabels(PieMenuEntry[] entries)
+	String[] getLabels(PieMenuEntry[] entries)
 	{
 		final
-		List<String> retval = new ArrayList<String>(entries.length);
+		String[] retval = new String[entries.length];
 		{
-			for (PieMenuEntry entry : entries)
+			for (int i=0; i<entries.length; i++)
 			{
-				if (entry.label==null)
+				final
+				String label=entries[i].label;
+
+				if (label==null)
 				{
-					retval.add("<null>");
+					retval[i]="<null>";
 				}
 				else
 				{
-					retval.add(entry.label);
+					retval[i]=label;
 				}
 			}
 		}
@@ -607,7 +1827,17 @@ class PieMenu<T> extends JList<T> implements MouseMotionListener, MouseListener
 	public
 	void mouseClicked(MouseEvent mouseEvent)
 	{
+		final
+		Point point=mouseEvent.getPoint();
+
+		final
+		int wedge=getPieMenuLayout().getEntryAt(point.x, point.y);
 
+		if (wedge>=0 && wedgeToIndex(wedge)<0)
+		{
+			//The "more" wedge
+			nextPage();
+		}
 	}
 
 	public
@@ -637,19 +1867,66 @@ class PieMenu<T> extends JList<T> implements MouseMotionListener, MouseListener
 	public
 	void mouseDragged(MouseEvent mouseEvent)
 	{
-
+		trackSelection(mouseEvent.getPoint());
 	}
 
 	public
 	void mouseMoved(MouseEvent mouseEvent)
 	{
+		trackSelection(mouseEvent.getPoint());
+	}
+
+	/**
+	 * Selects the wedge under the mouse, or clears the selection if the mouse is over the center hub.
+	 */
+	private
+	void trackSelection(Point point)
+	{
+		final
+		int i=locationToIndex(point);
+
+		if (i<0)
+		{
+			if (!isSelectionEmpty())
+			{
+				clearSelection();
+			}
+		}
+		else
+		if (i!=getSelectedIndex())
+		{
+			setSelectedIndex(i);
+		}
+	}
+
+	/**
+	 * @return the index of the wedge at the given (component-relative) location, or -1 if it is over the center hub
+	 */
+	@Override
+	public
+	int locationToIndex(Point location)
+	{
+		PieMenuMetrics.hitTest();
+		return wedgeToIndex(getPieMenuLayout().getEntryAt(location.x, location.y));
+	}
 
+	/**
+	 * Used for gestures (see MarkingMenu), where only the direction of a stroke matters, and not where it ended up;
+	 * so only the innermost ring can be selected this way.
+	 *
+	 * @return the index of the wedge in the direction of the given (screen) offset from the hub, or -1 if there is none
+	 */
+	public
+	int directionToIndex(int dx, int dy)
+	{
+		return wedgeToIndex(getPieMenuLayout().getEntryInDirection(dx, dy));
 	}
 
 	public
 	void setCenter(Point point)
 	{
 		this.centerPoint = point;
+		updateBounds();
 		repaint();
 	}
 
@@ -697,6 +1974,258 @@ class PieMenu<T> extends JList<T> implements MouseMotionListener, MouseListener
 			throw new NullPointerException();
 		}
 
-		this.colorizer = colorizer;
+		if (this.colorizer!=colorizer)
+		{
+			this.colorizer = colorizer;
+
+			//Existing wedges will be recolored (from scratch) with the new scheme.
+			if (pageSize==0)
+			{
+				wedgeStore.reset();
+			}
+			else
+			{
+				pageEntries=null;
+			}
+
+			lastWedgeHue=0.0f;
+			invalidatePieMenuLayout();
+		}
+	}
+
+	private
+	SubMenuLoader subMenuLoader;
+
+	private
+	Executor subMenuExecutor=getDefaultSubMenuExecutor();
+
+	private final
+	SubMenuCache subMenuCache=new SubMenuCache(TimeUnit.MINUTES.toNanos(5));
+
+	private static
+	Executor defaultSubMenuExecutor;
+
+	/**
+	 * @return a (lazily-created) pool of daemon threads that is shared by all the pie menus
+	 */
+	private static synchronized
+	Executor getDefaultSubMenuExecutor()
+	{
+		if (defaultSubMenuExecutor==null)
+		{
+			defaultSubMenuExecutor=Executors.newCachedThreadPool(new ThreadFactory()
+			{
+				private final
+				AtomicInteger counter=new AtomicInteger();
+
+				public
+				Thread newThread(Runnable runnable)
+				{
+					final
+					Thread retval=new Thread(runnable, "pie-menu-submenu-loader-"+counter.incrementAndGet());
+					{
+						retval.setDaemon(true);
+					}
+
+					return retval;
+				}
+			});
+		}
+
+		return defaultSubMenuExecutor;
+	}
+
+	public
+	SubMenuLoader getSubMenuLoader()
+	{
+		return subMenuLoader;
+	}
+
+	/**
+	 * @param subMenuLoader called (off the EDT) to fetch the submenu of a wedge the first time it is hovered over
+	 */
+	public
+	void setSubMenuLoader(SubMenuLoader subMenuLoader)
+	{
+		this.subMenuLoader = subMenuLoader;
+		subMenuCache.clear();
+	}
+
+	/**
+	 * @param executor where submenus are loaded, e.g. a virtual-thread-per-task executor (where available)
+	 */
+	public
+	void setSubMenuExecutor(Executor executor)
+	{
+		if (executor==null)
+		{
+			throw new NullPointerException();
+		}
+
+		this.subMenuExecutor = executor;
+	}
+
+	/**
+	 * @param duration how long a loaded submenu (or the absence of one) is remembered before it is loaded again
+	 */
+	public
+	void setSubMenuTimeToLive(long duration, TimeUnit timeUnit)
+	{
+		subMenuCache.setTimeToLiveNanos(timeUnit.toNanos(duration));
+	}
+
+	/**
+	 * @return the submenu of the given wedge, or null if it has none (or it has not been loaded yet, in which case a
+	 *         "subMenuModel" property change will be fired when it arrives)
+	 */
+	public
+	ListModel<?> getSubMenuModel(int index)
+	{
+		requestSubMenu(index);
+
+		final
+		PieMenuEntry pieMenuEntry=getPieMenuEntry(index);
+
+		return (pieMenuEntry==null ? null : pieMenuEntry.subMenuModel);
+	}
+
+	/**
+	 * Compiles this menu (and all of its submenus, as given by the submenu loader) into an index of stroke directions,
+	 * for a MarkingMenu to recognize multi-level marks with. As this loads every submenu, it should not be called on
+	 * the EDT.
+	 *
+	 * @param maximumDepth how many levels of submenus to include
+	 */
+	public
+	GestureTrie compileGestureTrie(int maximumDepth) throws Exception
+	{
+		return GestureTrie.compile(getModel(), subMenuLoader, getMeasuringFontMetrics(), maximumDepth);
+	}
+
+	/**
+	 * Starts loading the submenu for the given wedge, unless it is already loaded (or loading).
+	 */
+	private
+	void requestSubMenu(int index)
+	{
+		if (subMenuLoader==null)
+		{
+			return;
+		}
+
+		final
+		PieMenuEntry pieMenuEntry=getPieMenuEntry(index);
+
+		if (pieMenuEntry==null)
+		{
+			//Not on the current page.
+			return;
+		}
+
+		final
+		Object value=pieMenuEntry.value;
+
+		final
+		boolean hit=subMenuCache.contains(value);
+
+		PieMenuMetrics.subMenu(hit);
+
+		if (hit)
+		{
+			pieMenuEntry.subMenuModel=subMenuCache.get(value);
+			return;
+		}
+
+		pieMenuEntry.subMenuModel=null;
+
+		if (!subMenuCache.startLoading(value))
+		{
+			return;
+		}
+
+		final
+		SubMenuLoader loader=this.subMenuLoader;
+
+		final
+		int generation=subMenuCache.getGeneration();
+
+		subMenuExecutor.execute(new Runnable()
+		{
+			public
+			void run()
+			{
+				try
+				{
+					final
+					ListModel<?> model=loader.loadSubMenu(value);
+
+					SwingUtilities.invokeLater(new Runnable()
+					{
+						public
+						void run()
+						{
+							subMenuLoaded(generation, value, model);
+						}
+					});
+				}
+				catch (Throwable t)
+				{
+					log.error("unable to load submenu for '{}'", value, t);
+
+					//NB: even for an Error, so that the value is not left 'pending' forever.
+					SwingUtilities.invokeLater(new Runnable()
+					{
+						public
+						void run()
+						{
+							subMenuCache.failedLoading(value, generation);
+						}
+					});
+
+					if (t instanceof Error)
+					{
+						throw (Error)t;
+					}
+				}
+			}
+		});
+	}
+
+	private
+	void subMenuLoaded(int generation, Object value, ListModel<?> model)
+	{
+		if (!subMenuCache.finishedLoading(value, generation, model))
+		{
+			//The loader was replaced while this was in flight, so ask the new one for whatever is highlighted now.
+			final
+			int i=getSelectedIndex();
+
+			if (i>=0)
+			{
+				requestSubMenu(i);
+			}
+
+			return;
+		}
+
+		for (PieMenuEntry pieMenuEntry : getCreatedPieMenuEntries())
+		{
+			if (pieMenuEntry!=null && pieMenuEntry.value==value)
+			{
+				pieMenuEntry.subMenuModel=model;
+			}
+		}
+
+		if (model!=null)
+		{
+			if (typeAheadPrefix!=null)
+			{
+				//It might have something that matches.
+				typeAheadMatches=null;
+				repaint();
+			}
+
+			firePropertyChange("subMenuModel", null, model);
+		}
 	}
 }
@@ -0,0 +1,169 @@
+package com.github.osndok.piemenu;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the opening animations of all the pie menus from a single (shared) Swing timer, which only runs while some
+ * menu is animating. Each frame is merely the menu's cached wheel image, scaled & faded about its hub (see PieMenu),
+ * so nothing is laid out or re-rendered while the menu grows.
+ *
+ * Progress is by the clock, not by the frame, so a slow machine gets fewer frames rather than a slower menu; and a
+ * machine that misses too many frames (against the per-frame budget) is not made to watch a slideshow, its menus just
+ * finish opening right away. Dropped frames are counted in PieMenuMetrics.
+ *
+ * Only used on the EDT.
+ */
+final
+class PieMenuAnimator implements ActionListener
+{
+	/**
+	 * About 60 frames per second.
+	 */
+	private static final
+	int FRAME_MILLIS = 16;
+
+	private static final
+	long FRAME_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(FRAME_MILLIS);
+
+	/**
+	 * An animation that has dropped more frames than this is finished at once.
+	 */
+	private static final
+	int MAXIMUM_DROPPED_FRAMES = 3;
+
+	private static
+	PieMenuAnimator instance;
+
+	private final
+	Timer timer = new Timer(FRAME_MILLIS, this);
+
+	private final
+	List<PieMenu<?>> animating = new ArrayList<PieMenu<?>>();
+
+	/**
+	 * The dropped frames of each animating menu (index-for-index).
+	 */
+	private final
+	List<int[]> droppedFrames = new ArrayList<int[]>();
+
+	private
+	long lastFrameNanos;
+
+	private
+	PieMenuAnimator()
+	{
+		timer.setCoalesce(true);
+	}
+
+	private static
+	PieMenuAnimator getInstance()
+	{
+		if (instance==null)
+		{
+			instance=new PieMenuAnimator();
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Starts (or restarts) animating the given menu, which will be asked for frames until it says that it is done.
+	 */
+	static
+	void start(PieMenu<?> pieMenu)
+	{
+		final
+		PieMenuAnimator animator=getInstance();
+
+		final
+		int i=animator.animating.indexOf(pieMenu);
+
+		if (i>=0)
+		{
+			animator.droppedFrames.get(i)[0]=0;
+		}
+		else
+		{
+			animator.animating.add(pieMenu);
+			animator.droppedFrames.add(new int[1]);
+		}
+
+		if (!animator.timer.isRunning())
+		{
+			animator.lastFrameNanos=System.nanoTime();
+			animator.timer.start();
+		}
+	}
+
+	static
+	void stop(PieMenu<?> pieMenu)
+	{
+		if (instance!=null)
+		{
+			instance.remove(pieMenu);
+		}
+	}
+
+	private
+	void remove(PieMenu<?> pieMenu)
+	{
+		final
+		int i=animating.indexOf(pieMenu);
+
+		if (i>=0)
+		{
+			animating.remove(i);
+			droppedFrames.remove(i);
+		}
+
+		if (animating.isEmpty())
+		{
+			timer.stop();
+		}
+	}
+
+	/**
+	 * Called by the timer, once per frame.
+	 */
+	public
+	void actionPerformed(ActionEvent actionEvent)
+	{
+		final
+		long now=System.nanoTime();
+
+		//NB: a frame is dropped if the EDT was too busy (e.g. painting the last one) to get to this one on time.
+		final
+		int dropped=(int)Math.max(0, (now-lastFrameNanos)/FRAME_BUDGET_NANOS-1);
+
+		lastFrameNanos=now;
+
+		PieMenuMetrics.animationFrame(dropped);
+
+		for (int i=animating.size()-1; i>=0; i--)
+		{
+			final
+			int[] droppedSoFar=droppedFrames.get(i);
+
+			droppedSoFar[0]+=dropped;
+
+			final
+			boolean tooSlow=(droppedSoFar[0]>MAXIMUM_DROPPED_FRAMES);
+
+			if (!animating.get(i).animationFrame(now, tooSlow))
+			{
+				animating.remove(i);
+				droppedFrames.remove(i);
+			}
+		}
+
+		if (animating.isEmpty())
+		{
+			timer.stop();
+		}
+	}
+}
@@ -3,7 +3,6 @@ package com.github.osndok.piemenu;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.Rectangle2D;
 
 /**
  * Created by robert on 2015-11-04 16:00.
@@ -11,17 +10,36 @@ import java.awt.geom.Rectangle2D;
 class PieMenuEntry<T>
 {
 	String          label;
+	TruncatedLabel  truncatedLabel;
+	ShapedLabel     shapedLabel;
 	T               value;
 
 	Shape           shape;
 
-	boolean         enabled;
-	Rectangle2D     bounds;
+	Rectangle       bounds;
 	ListModel<?>    subMenuModel;
 	PieMenuQuadrant quadrant;
 	Image           icon;
 
-	float           hue;
-	Color           foregroundColor;
-	Color           backgroundColor;
+	/**
+	 * @return a new entry with all the same details, which another thread may lay out & draw on its own
+	 */
+	PieMenuEntry<T> copy()
+	{
+		final
+		PieMenuEntry<T> retval=new PieMenuEntry<T>();
+		{
+			retval.label=label;
+			retval.truncatedLabel=truncatedLabel;
+			retval.shapedLabel=shapedLabel;
+			retval.value=value;
+			retval.shape=shape;
+			retval.bounds=bounds;
+			retval.subMenuModel=subMenuModel;
+			retval.quadrant=quadrant;
+			retval.icon=icon;
+		}
+
+		return retval;
+	}
 }
@@ -0,0 +1,750 @@
+package com.github.osndok.piemenu;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of all the geometry needed to draw a pie menu (radii, wedge angles, quadrants, label
+ * clipping rectangles and label transforms) for a given set of labels in a given font. It is expensive to compute
+ * (every label must be measured), so it is computed once and kept until the model or font changes, so that
+ * painting can become a matter of simply drawing what is already known.
+ *
+ * When there are too many entries to fit around a reasonably-sized hub, the entries spill outward into concentric
+ * rings, each of which has its own label width (as chosen by the BasicTableWidthOptimizer for just its labels).
+ *
+ * All the coordinates are local to the component, with the hub centered in a square of getSize() pixels. The shapes
+ * and transforms that are handed out are shared, and therefore must not be modified.
+ */
+class PieMenuLayout
+{
+	private static final
+	Logger log = LoggerFactory.getLogger(PieMenuLayout.class);
+
+	static final
+	int LABEL_PADDING = 5;
+
+	/**
+	 * The hub must be large enough to be easily "grabbed" (or avoided) with the mouse, even if there are few wedges.
+	 */
+	private static final
+	int GRABBABLE_TARGET_BOUND = 40;
+
+	/**
+	 * The hub grows to make room for more wedges (as the labels must fit against it), but only up to this radius;
+	 * beyond that, the remaining entries spill over into outer rings.
+	 */
+	private static final
+	int MAXIMUM_HUB_RADIUS = 80;
+
+	private static final
+	double TWO_PI=2*Math.PI;
+
+	private static final
+	double HALF_PI=Math.PI/2;
+
+	private static final
+	double PI_AND_A_HALF=Math.PI*1.5;
+
+	private static final
+	double ANGLE_EPSILON=1e-9;
+
+	private final
+	String[] labels;
+
+	private final
+	int paddedLabelHeight;
+
+	private final
+	int hubRadius;
+
+	private final
+	int outerRadius;
+
+	private final
+	int size;
+
+	private final
+	int localCenter;
+
+	private final
+	int numRings;
+
+	private final
+	int[] ringStarts;
+
+	private final
+	int[] ringSizes;
+
+	private final
+	int[] ringInnerRadii;
+
+	private final
+	int[] ringOuterRadii;
+
+	private final
+	int[] ringLabelWidths;
+
+	private final
+	Shape[] ringInnerCircles;
+
+	private final
+	Shape[] ringOuterCircles;
+
+	private final
+	int[] rings;
+
+	private final
+	double[] lowAngles;
+
+	private final
+	double[] highAngles;
+
+	private final
+	PieMenuQuadrant[] quadrants;
+
+	private final
+	Shape[] sectors;
+
+	private final
+	Rectangle2D[] labelClips;
+
+	private final
+	AffineTransform[] labelTransforms;
+
+	private final
+	int[] labelX;
+
+	private final
+	int[] labelY;
+
+	private final
+	int hubLabelX;
+
+	private final
+	int hubLabelY;
+
+	PieMenuLayout(String[] labels, FontMetrics fontMetrics)
+	{
+		this.labels = labels.clone();
+
+		final
+		int numEntries=labels.length;
+
+		//NB: each label is measured exactly once, then every ring's width is chosen from these.
+		final
+		int[] labelWidths=new int[numEntries];
+		{
+			final
+			LabelWidthCache labelWidthCache=LabelWidthCache.forMetrics(fontMetrics);
+
+			for (int i=0; i<numEntries; i++)
+			{
+				labelWidths[i]=labelWidthCache.stringWidth(labels[i]);
+			}
+		}
+
+		final
+		int h=fontMetrics.getHeight();
+
+		this.paddedLabelHeight=2*LABEL_PADDING+h;
+
+		final
+		boolean singleRing;
+		{
+			final
+			int labelBound=getLabelBound(numEntries, paddedLabelHeight);
+
+			singleRing=(labelBound<=MAXIMUM_HUB_RADIUS);
+			hubRadius=Math.min(MAXIMUM_HUB_RADIUS, Math.max(GRABBABLE_TARGET_BOUND, labelBound));
+		}
+
+		//First pass: how many rings, and how many entries in each?
+		{
+			final
+			int[] starts=new int[numEntries];
+
+			final
+			int[] sizes=new int[numEntries];
+
+			final
+			int[] innerRadii=new int[numEntries];
+
+			final
+			int[] outerRadii=new int[numEntries];
+
+			final
+			int[] ringWidths=new int[numEntries];
+
+			int ring=0;
+			int start=0;
+			int innerRadius=hubRadius;
+
+			while (start<numEntries)
+			{
+				final
+				int ringSize;
+				{
+					if (ring==0 && singleRing)
+					{
+						ringSize=numEntries;
+					}
+					else
+					{
+						ringSize=Math.min(numEntries-start, getRingCapacity(paddedLabelHeight, innerRadius));
+					}
+				}
+
+				final
+				int allocatedLabelWidth=BasicTableWidthOptimizer.getPixelsWide(labelWidths, start, start+ringSize);
+
+				starts[ring]=start;
+				sizes[ring]=ringSize;
+				innerRadii[ring]=innerRadius;
+				ringWidths[ring]=allocatedLabelWidth;
+				outerRadii[ring]=innerRadius+2*LABEL_PADDING+allocatedLabelWidth;
+
+				if (log.isDebugEnabled())
+				{
+					log.debug("ring #{}: {} entries, labels @ {} x {}, {} < r < {}", ring, ringSize, allocatedLabelWidth,
+								 paddedLabelHeight, innerRadius, outerRadii[ring]);
+				}
+
+				start+=ringSize;
+				innerRadius=outerRadii[ring];
+				ring++;
+			}
+
+			numRings=ring;
+			ringStarts=Arrays.copyOf(starts, ring);
+			ringSizes=Arrays.copyOf(sizes, ring);
+			ringInnerRadii=Arrays.copyOf(innerRadii, ring);
+			ringOuterRadii=Arrays.copyOf(outerRadii, ring);
+			ringLabelWidths=Arrays.copyOf(ringWidths, ring);
+
+			if (ring==0)
+			{
+				outerRadius=hubRadius;
+			}
+			else
+			{
+				outerRadius=outerRadii[ring-1];
+			}
+		}
+
+		size=2*outerRadius+1;
+		localCenter=size/2;
+
+		hubLabelX=localCenter-(fontMetrics.charWidth('X')/2);
+		hubLabelY=localCenter+(h/2);
+
+		ringInnerCircles=new Shape[numRings];
+		ringOuterCircles=new Shape[numRings];
+		rings=new int[numEntries];
+		lowAngles=new double[numEntries];
+		highAngles=new double[numEntries];
+		quadrants=new PieMenuQuadrant[numEntries];
+		sectors=new Shape[numEntries];
+		labelClips=new Rectangle2D[numEntries];
+		labelTransforms=new AffineTransform[numEntries];
+		labelX=new int[numEntries];
+		labelY=new int[numEntries];
+
+		for (int ring=0; ring<numRings; ring++)
+		{
+			final
+			int innerRadius=ringInnerRadii[ring];
+
+			final
+			int ringOuterRadius=ringOuterRadii[ring];
+
+			final
+			int allocatedLabelWidth=ringLabelWidths[ring];
+
+			final
+			int ringSize=ringSizes[ring];
+
+			ringInnerCircles[ring]=createCircle(innerRadius);
+			ringOuterCircles[ring]=createCircle(ringOuterRadius);
+
+			final
+			double radiansPerWedge=Math.min(45.0, 2*Math.PI/ringSize);
+
+			final
+			double degreesPerWedge=Math.toDegrees(radiansPerWedge);
+
+			for (int j=0; j<ringSize; j++)
+			{
+				final
+				int i=ringStarts[ring]+j;
+
+				/*
+				The offsetAngle is the principal "angle" of the wedge, as defined by its "lower" boundary leg.
+				Zero radians & zero degrees should point "right".
+				 */
+				final
+				double highAngle=(HALF_PI-radiansPerWedge*(j))%TWO_PI;
+
+				final
+				double lowAngle=(HALF_PI-radiansPerWedge*(j+1))%TWO_PI;
+
+				final
+				PieMenuQuadrant quadrant=computeQuadrant(lowAngle, highAngle);
+				{
+					if (log.isTraceEnabled())
+					{
+						log.trace("{} quadrant = {}; {} < {}", labels[i], quadrant, lowAngle, highAngle);
+					}
+				}
+
+				rings[i]=ring;
+				lowAngles[i]=lowAngle;
+				highAngles[i]=highAngle;
+				quadrants[i]=quadrant;
+
+				//TODO: Why are these angles so far off from what I would expect?
+				sectors[i]=createSector(innerRadius, ringOuterRadius, Math.toDegrees(lowAngle), degreesPerWedge);
+
+				final
+				AffineTransform labelTransform=AffineTransform.getTranslateInstance(localCenter, localCenter);
+
+				switch (quadrant)
+				{
+					case EAST:
+					{
+						//Left-centered label, no rotation, against the inner radius.
+						labelX[i]=innerRadius+LABEL_PADDING;
+						labelY[i]=LABEL_PADDING;
+						break;
+					}
+
+					case WEST:
+					{
+						//Right-centered label, no rotation, against the outer/left radius.
+						labelX[i]=LABEL_PADDING-ringOuterRadius;
+						labelY[i]=LABEL_PADDING;
+						break;
+					}
+
+					case NORTH_EAST:
+					{
+						//The first & native transform... left-aligned text, anchored at the lower wedge border.
+						labelTransform.rotate(-lowAngle);
+						labelX[i]=innerRadius+LABEL_PADDING;
+						labelY[i]=-LABEL_PADDING;
+						break;
+					}
+
+					case SOUTH_EAST:
+					{
+						//The second transform is quite similar... left-aligned text, anchored at the upper wedge border.
+						//Offset the rotation & translation a bit, to make the words appear closer to the readable position
+						labelTransform.rotate(-highAngle);
+						labelX[i]=innerRadius+LABEL_PADDING;
+						labelY[i]=h+LABEL_PADDING;
+						break;
+					}
+
+					case SOUTH_WEST:
+					{
+						labelTransform.rotate(Math.PI-lowAngle);
+						labelX[i]=LABEL_PADDING-ringOuterRadius;
+						labelY[i]=paddedLabelHeight-LABEL_PADDING;
+						break;
+					}
+
+					case NORTH_WEST:
+					{
+						labelTransform.rotate(Math.PI-highAngle);
+						labelX[i]=LABEL_PADDING-ringOuterRadius;
+						labelY[i]=-LABEL_PADDING;
+						break;
+					}
+
+					default:
+					{
+						throw new AssertionError();
+					}
+				}
+
+				labelTransforms[i]=labelTransform;
+
+				//The clip is the label's own "cell", expressed in the (transformed) coordinates that the label is drawn in.
+				labelClips[i]=new Rectangle2D.Double(labelX[i], labelY[i]-paddedLabelHeight+LABEL_PADDING,
+														allocatedLabelWidth, paddedLabelHeight);
+			}
+		}
+	}
+
+	/**
+	 * @return how far from the center the labels of a single ring of the given number of entries would start
+	 */
+	private static
+	int getLabelBound(int numEntries, int paddedLabelHeight)
+	{
+		final
+		double pedanticRadiansPerWedge=2*Math.PI/numEntries;
+
+		return (int) (paddedLabelHeight / Math.tan(pedanticRadiansPerWedge));
+	}
+
+	/**
+	 * @return how many wedges can fit in a ring, such that each label will fit against the ring's inner radius
+	 */
+	private static
+	int getRingCapacity(int paddedLabelHeight, int innerRadius)
+	{
+		return Math.max(1, (int)(TWO_PI/Math.atan2(paddedLabelHeight, innerRadius)));
+	}
+
+	/**
+	 * Since the innermost ring is all that can be reached by direction alone, this is enough to interpret a gesture
+	 * without laying out (or even knowing the labels of) the menu that it would have been drawn on.
+	 *
+	 * @return how many of the given number of entries would be in the innermost ring, which depends only on the height
+	 *         of the font (and not on the labels)
+	 */
+	static
+	int getFirstRingSize(int numEntries, FontMetrics fontMetrics)
+	{
+		final
+		int paddedLabelHeight=2*LABEL_PADDING+fontMetrics.getHeight();
+
+		if (getLabelBound(numEntries, paddedLabelHeight)<=MAXIMUM_HUB_RADIUS)
+		{
+			return numEntries;
+		}
+		else
+		{
+			return Math.min(numEntries, getRingCapacity(paddedLabelHeight, MAXIMUM_HUB_RADIUS));
+		}
+	}
+
+	private
+	Shape createCircle(int radius)
+	{
+		return new Ellipse2D.Double(localCenter-radius, localCenter-radius, 2*radius, 2*radius);
+	}
+
+	/**
+	 * @return the visible part of a wedge (i.e. the part of the pie-slice that lies within its ring)
+	 */
+	private
+	Shape createSector(int innerRadius, int outerRadius, double startDegrees, double extentDegrees)
+	{
+		final
+		int outerOffset=localCenter-outerRadius;
+
+		final
+		int innerOffset=localCenter-innerRadius;
+
+		final
+		Path2D.Double retval=new Path2D.Double();
+		{
+			retval.append(new Arc2D.Double(outerOffset, outerOffset, 2*outerRadius, 2*outerRadius,
+											  startDegrees, extentDegrees, Arc2D.OPEN), false);
+			retval.append(new Arc2D.Double(innerOffset, innerOffset, 2*innerRadius, 2*innerRadius,
+											  startDegrees+extentDegrees, -extentDegrees, Arc2D.OPEN), true);
+			retval.closePath();
+		}
+
+		return retval;
+	}
+
+	/**
+	 * Finds the wedge under a point without testing any shapes: the distance from the hub picks out the ring, and
+	 * the angle (with respect to the hub) picks out the wedge.
+	 *
+	 * @return the index of the wedge at the given (local) point, or -1 if the point is in the hub or outside the menu
+	 */
+	int getEntryAt(double x, double y)
+	{
+		final
+		double dx=x-localCenter;
+
+		//NB: screen coordinates grow "downward", but our angles are the traditional counter-clockwise ones.
+		final
+		double dy=localCenter-y;
+
+		final
+		double distanceSquared=dx*dx+dy*dy;
+
+		if (distanceSquared<hubRadius*hubRadius)
+		{
+			return -1;
+		}
+
+		for (int ring=0; ring<numRings; ring++)
+		{
+			final
+			int ringOuterRadius=ringOuterRadii[ring];
+
+			if (distanceSquared<=ringOuterRadius*ringOuterRadius)
+			{
+				return ringStarts[ring]+getWedgeIndex(Math.atan2(dy, dx), ringSizes[ring]);
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Finds a wedge by direction alone (e.g. for a flick of the mouse), which only considers the innermost ring, since
+	 * the outer rings cannot be distinguished without a distance.
+	 *
+	 * @return the index of the innermost-ring wedge that lies in the direction of the given (screen) offset from the
+	 *         hub, or -1 if there are no wedges
+	 */
+	int getEntryInDirection(double dx, double dy)
+	{
+		if (numRings==0)
+		{
+			return -1;
+		}
+
+		final
+		int wedge=getWedgeIndex(Math.atan2(-dy, dx), ringSizes[0]);
+
+		if (wedge<0)
+		{
+			return -1;
+		}
+
+		return ringStarts[0]+wedge;
+	}
+
+	/**
+	 * @return the index of the wedge (in a ring of the given number of evenly-sized wedges, starting at 'noon' and
+	 *         proceeding clockwise) that contains the given angle, or -1 if there are no wedges
+	 */
+	static
+	int getWedgeIndex(double angle, int numWedges)
+	{
+		if (numWedges<=0)
+		{
+			return -1;
+		}
+
+		final
+		double radiansPerWedge=TWO_PI/numWedges;
+
+		final
+		int i=(int)Math.floor((HALF_PI-angle)/radiansPerWedge)%numWedges;
+
+		if (i<0)
+		{
+			return i+numWedges;
+		}
+		else
+		{
+			return i;
+		}
+	}
+
+	static
+	PieMenuQuadrant computeQuadrant(double lowAngle, double highAngle)
+	{
+		if (lowAngle<0) lowAngle+=TWO_PI;
+		if (lowAngle>TWO_PI) lowAngle-=TWO_PI;
+		if (highAngle<0) highAngle+=TWO_PI;
+		if (highAngle>TWO_PI) highAngle-=TWO_PI;
+
+		assert(lowAngle>=0);
+		assert(highAngle>=0);
+		assert(lowAngle<=TWO_PI);
+		assert(highAngle<=TWO_PI);
+
+		/*
+		An angle that is only a rounding error away from the horizon is *on* the horizon, otherwise a wedge that merely
+		touches it (e.g. the fourth wedge of a 12-item wheel) would be mistaken for one that straddles it.
+		 */
+		if (lowAngle<ANGLE_EPSILON || lowAngle>TWO_PI-ANGLE_EPSILON) lowAngle=0;
+		if (highAngle<ANGLE_EPSILON || highAngle>TWO_PI-ANGLE_EPSILON) highAngle=TWO_PI;
+
+		//If '0' or 'PI' is within the given range, use a special 'quadrant' (EAST or WEST).
+
+		if (lowAngle>highAngle)
+		{
+			return PieMenuQuadrant.EAST;
+		}
+
+		final
+		double median=(lowAngle+highAngle)/2;
+
+		if (median < HALF_PI)
+		{
+			return PieMenuQuadrant.NORTH_EAST;
+		}
+
+		if (lowAngle < Math.PI-ANGLE_EPSILON && Math.PI+ANGLE_EPSILON < highAngle)
+		{
+			return PieMenuQuadrant.WEST;
+		}
+
+		if (median<=Math.PI)
+		{
+			return PieMenuQuadrant.NORTH_WEST;
+		}
+
+		if (median<PI_AND_A_HALF)
+		{
+			return PieMenuQuadrant.SOUTH_WEST;
+		}
+
+		return PieMenuQuadrant.SOUTH_EAST;
+	}
+
+	/**
+	 * @return the bounds that a component must have to display this layout, with the hub at the given point
+	 */
+	Rectangle getBounds(Point center)
+	{
+		return new Rectangle(center.x - outerRadius, center.y - outerRadius, size, size);
+	}
+
+	int getNumEntries()
+	{
+		return labels.length;
+	}
+
+	String getLabel(int i)
+	{
+		return labels[i];
+	}
+
+	int getHubRadius()
+	{
+		return hubRadius;
+	}
+
+	int getOuterRadius()
+	{
+		return outerRadius;
+	}
+
+	int getPaddedLabelHeight()
+	{
+		return paddedLabelHeight;
+	}
+
+	int getSize()
+	{
+		return size;
+	}
+
+	int getLocalCenter()
+	{
+		return localCenter;
+	}
+
+	int getNumRings()
+	{
+		return numRings;
+	}
+
+	/**
+	 * @return the index of the first entry in the given ring
+	 */
+	int getRingStart(int ring)
+	{
+		return ringStarts[ring];
+	}
+
+	/**
+	 * @return the number of entries in the given ring
+	 */
+	int getRingSize(int ring)
+	{
+		return ringSizes[ring];
+	}
+
+	int getRingInnerRadius(int ring)
+	{
+		return ringInnerRadii[ring];
+	}
+
+	int getRingOuterRadius(int ring)
+	{
+		return ringOuterRadii[ring];
+	}
+
+	int getRingLabelWidth(int ring)
+	{
+		return ringLabelWidths[ring];
+	}
+
+	Shape getRingInnerCircle(int ring)
+	{
+		return ringInnerCircles[ring];
+	}
+
+	Shape getRingOuterCircle(int ring)
+	{
+		return ringOuterCircles[ring];
+	}
+
+	/**
+	 * @return the ring that the given entry is in
+	 */
+	int getRing(int i)
+	{
+		return rings[i];
+	}
+
+	double getLowAngle(int i)
+	{
+		return lowAngles[i];
+	}
+
+	double getHighAngle(int i)
+	{
+		return highAngles[i];
+	}
+
+	PieMenuQuadrant getQuadrant(int i)
+	{
+		return quadrants[i];
+	}
+
+	Shape getSector(int i)
+	{
+		return sectors[i];
+	}
+
+	Rectangle2D getLabelClip(int i)
+	{
+		return labelClips[i];
+	}
+
+	AffineTransform getLabelTransform(int i)
+	{
+		return labelTransforms[i];
+	}
+
+	int getLabelX(int i)
+	{
+		return labelX[i];
+	}
+
+	int getLabelY(int i)
+	{
+		return labelY[i];
+	}
+
+	int getHubLabelX()
+	{
+		return hubLabelX;
+	}
+
+	int getHubLabelY()
+	{
+		return hubLabelY;
+	}
+}
@@ -0,0 +1,29 @@
+package com.github.osndok.piemenu;
+
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
+import javax.swing.plaf.basic.BasicListUI;
+
+/**
+ * The list UI of a PieMenu, which paints itself (as wedges, rather than as rows), and so only wants the defaults, key
+ * bindings, & listeners of a BasicListUI... less its selection listener, which would repaint the rows between the old
+ * & new selection (i.e. a strip of the menu that has nothing to do with either wedge). The menu repaints the two
+ * wedges itself, in PieMenu.valueChanged().
+ */
+final
+class PieMenuListUI extends BasicListUI
+{
+	@Override
+	protected
+	ListSelectionListener createListSelectionListener()
+	{
+		return new ListSelectionListener()
+		{
+			public
+			void valueChanged(ListSelectionEvent listSelectionEvent)
+			{
+				//no-op
+			}
+		};
+	}
+}
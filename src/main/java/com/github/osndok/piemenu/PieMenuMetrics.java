@@ -0,0 +1,324 @@
+package com.github.osndok.piemenu;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters & latency histograms for all the pie menus in the VM, which are cheap enough to always be on (a few atomic
+ * increments, and never an allocation), unlike logging. They are published as a JMX MBean named by OBJECT_NAME.
+ */
+final
+class PieMenuMetrics implements PieMenuMetricsMBean
+{
+	private static final
+	Logger log = LoggerFactory.getLogger(PieMenuMetrics.class);
+
+	static final
+	String OBJECT_NAME = "com.github.osndok.piemenu:type=PieMenuMetrics";
+
+	private static final
+	PieMenuMetrics INSTANCE = new PieMenuMetrics();
+
+	static
+	{
+		try
+		{
+			ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+		}
+		catch (Exception e)
+		{
+			//e.g. another copy of this library (in another class loader) got there first.
+			log.error("unable to register metrics as: {}", OBJECT_NAME, e);
+		}
+	}
+
+	private final
+	LatencyHistogram paints = new LatencyHistogram();
+
+	private final
+	LatencyHistogram layouts = new LatencyHistogram();
+
+	private final
+	AtomicLong wheelImageHits = new AtomicLong();
+
+	private final
+	AtomicLong wheelImageMisses = new AtomicLong();
+
+	private final
+	AtomicLong ringImageHits = new AtomicLong();
+
+	private final
+	AtomicLong ringImageMisses = new AtomicLong();
+
+	private final
+	AtomicLong labelWidthHits = new AtomicLong();
+
+	private final
+	AtomicLong labelWidthMisses = new AtomicLong();
+
+	private final
+	AtomicLong subMenuHits = new AtomicLong();
+
+	private final
+	AtomicLong subMenuMisses = new AtomicLong();
+
+	private final
+	AtomicLong hitTests = new AtomicLong();
+
+	private final
+	AtomicLong animationFrames = new AtomicLong();
+
+	private final
+	AtomicLong droppedAnimationFrames = new AtomicLong();
+
+	private
+	long hitTestRateCount;
+
+	private
+	long hitTestRateNanos = System.nanoTime();
+
+	private
+	double hitTestsPerSecond;
+
+	private
+	PieMenuMetrics()
+	{
+		//singleton
+	}
+
+	static
+	void recordPaint(long nanos)
+	{
+		INSTANCE.paints.record(nanos);
+	}
+
+	static
+	void recordLayout(long nanos)
+	{
+		INSTANCE.layouts.record(nanos);
+	}
+
+	static
+	void wheelImage(boolean hit)
+	{
+		(hit ? INSTANCE.wheelImageHits : INSTANCE.wheelImageMisses).incrementAndGet();
+	}
+
+	static
+	void ringImage(boolean hit)
+	{
+		(hit ? INSTANCE.ringImageHits : INSTANCE.ringImageMisses).incrementAndGet();
+	}
+
+	static
+	void labelWidth(boolean hit)
+	{
+		(hit ? INSTANCE.labelWidthHits : INSTANCE.labelWidthMisses).incrementAndGet();
+	}
+
+	static
+	void subMenu(boolean hit)
+	{
+		(hit ? INSTANCE.subMenuHits : INSTANCE.subMenuMisses).incrementAndGet();
+	}
+
+	static
+	void hitTest()
+	{
+		INSTANCE.hitTests.incrementAndGet();
+	}
+
+	/**
+	 * @param dropped how many frames were missed (the EDT being busy) since the previous one
+	 */
+	static
+	void animationFrame(int dropped)
+	{
+		INSTANCE.animationFrames.incrementAndGet();
+
+		if (dropped>0)
+		{
+			INSTANCE.droppedAnimationFrames.addAndGet(dropped);
+		}
+	}
+
+	static
+	PieMenuMetricsMBean get()
+	{
+		return INSTANCE;
+	}
+
+	public
+	long getPaintCount()
+	{
+		return paints.getCount();
+	}
+
+	public
+	double getPaintMeanMicros()
+	{
+		return paints.getMeanMicros();
+	}
+
+	public
+	double getPaint50thPercentileMicros()
+	{
+		return paints.getPercentileMicros(50.0);
+	}
+
+	public
+	double getPaint99thPercentileMicros()
+	{
+		return paints.getPercentileMicros(99.0);
+	}
+
+	public
+	double getPaintMaximumMicros()
+	{
+		return paints.getMaximumMicros();
+	}
+
+	public
+	long[] getPaintHistogram()
+	{
+		return paints.getBuckets();
+	}
+
+	public
+	long getLayoutCount()
+	{
+		return layouts.getCount();
+	}
+
+	public
+	double getLayoutMeanMicros()
+	{
+		return layouts.getMeanMicros();
+	}
+
+	public
+	double getLayout99thPercentileMicros()
+	{
+		return layouts.getPercentileMicros(99.0);
+	}
+
+	public
+	double getLayoutMaximumMicros()
+	{
+		return layouts.getMaximumMicros();
+	}
+
+	public
+	long getWheelImageHits()
+	{
+		return wheelImageHits.get();
+	}
+
+	public
+	long getWheelImageMisses()
+	{
+		return wheelImageMisses.get();
+	}
+
+	public
+	long getRingImageHits()
+	{
+		return ringImageHits.get();
+	}
+
+	public
+	long getRingImageMisses()
+	{
+		return ringImageMisses.get();
+	}
+
+	public
+	long getLabelWidthHits()
+	{
+		return labelWidthHits.get();
+	}
+
+	public
+	long getLabelWidthMisses()
+	{
+		return labelWidthMisses.get();
+	}
+
+	public
+	long getSubMenuHits()
+	{
+		return subMenuHits.get();
+	}
+
+	public
+	long getSubMenuMisses()
+	{
+		return subMenuMisses.get();
+	}
+
+	public
+	long getHitTestCount()
+	{
+		return hitTests.get();
+	}
+
+	public
+	long getAnimationFrameCount()
+	{
+		return animationFrames.get();
+	}
+
+	public
+	long getDroppedAnimationFrames()
+	{
+		return droppedAnimationFrames.get();
+	}
+
+	public synchronized
+	double getHitTestsPerSecond()
+	{
+		final
+		long now=System.nanoTime();
+
+		final
+		long elapsed=now-hitTestRateNanos;
+
+		if (elapsed>=TimeUnit.SECONDS.toNanos(1))
+		{
+			final
+			long count=hitTests.get();
+
+			hitTestsPerSecond=(count-hitTestRateCount)*1e9/elapsed;
+			hitTestRateCount=count;
+			hitTestRateNanos=now;
+		}
+
+		return hitTestsPerSecond;
+	}
+
+	public synchronized
+	void reset()
+	{
+		paints.reset();
+		layouts.reset();
+		wheelImageHits.set(0);
+		wheelImageMisses.set(0);
+		ringImageHits.set(0);
+		ringImageMisses.set(0);
+		labelWidthHits.set(0);
+		labelWidthMisses.set(0);
+		subMenuHits.set(0);
+		subMenuMisses.set(0);
+		hitTests.set(0);
+		animationFrames.set(0);
+		droppedAnimationFrames.set(0);
+		hitTestRateCount=0;
+		hitTestRateNanos=System.nanoTime();
+		hitTestsPerSecond=0.0;
+	}
+}
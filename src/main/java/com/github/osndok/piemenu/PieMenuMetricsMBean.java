@@ -0,0 +1,64 @@
+package com.github.osndok.piemenu;
+
+/**
+ * The JMX view of PieMenuMetrics (for jconsole, VisualVM, etc.), which covers every pie menu in the VM. Times are in
+ * microseconds, and percentiles are bucketed to the next power of two nanoseconds (so may read up to twice as high).
+ */
+public
+interface PieMenuMetricsMBean
+{
+	long getPaintCount();
+
+	double getPaintMeanMicros();
+
+	double getPaint50thPercentileMicros();
+
+	double getPaint99thPercentileMicros();
+
+	double getPaintMaximumMicros();
+
+	/**
+	 * @return the number of paints that took about 2^n nanoseconds, by n
+	 */
+	long[] getPaintHistogram();
+
+	long getLayoutCount();
+
+	double getLayoutMeanMicros();
+
+	double getLayout99thPercentileMicros();
+
+	double getLayoutMaximumMicros();
+
+	long getWheelImageHits();
+
+	long getWheelImageMisses();
+
+	long getRingImageHits();
+
+	long getRingImageMisses();
+
+	long getLabelWidthHits();
+
+	long getLabelWidthMisses();
+
+	long getSubMenuHits();
+
+	long getSubMenuMisses();
+
+	long getHitTestCount();
+
+	/**
+	 * @return the rate of hit-tests (i.e. mouse motion over a menu) since this was last read (at least a second ago)
+	 */
+	double getHitTestsPerSecond();
+
+	long getAnimationFrameCount();
+
+	/**
+	 * @return how many animation frames could not be shown on time (at about 60 per second), as the EDT was too busy
+	 */
+	long getDroppedAnimationFrames();
+
+	void reset();
+}
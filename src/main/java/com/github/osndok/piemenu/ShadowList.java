@@ -4,6 +4,7 @@ import javax.swing.*;
 import javax.swing.event.ListDataEvent;
 import javax.swing.event.ListDataListener;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -13,6 +14,9 @@ import java.util.List;
  * (rather than a callback) so that you can backfill the missing data as-needed... even with random
  * data, this should let you be able to keep the separate-but-related data intact.
  *
+ * Events that cover a range of indices (e.g. from a bulk add, removeRange(), or clear()) are applied as a single
+ * splice of the shadow list.
+ *
  * Created by robert on 2015-11-05 12:35.
  */
 class ShadowList<T> implements ListDataListener, Iterable<T>
@@ -36,51 +40,93 @@ class ShadowList<T> implements ListDataListener, Iterable<T>
 		assert(list.size()==listModel.getSize());
 	}
 
+	/**
+	 * Stops following the model, which is only needed if the model will outlive this list.
+	 */
+	void dispose()
+	{
+		listModel.removeListDataListener(this);
+	}
+
 	public
 	void intervalAdded(ListDataEvent listDataEvent)
 	{
 		final
-		int i=singleEntriesOnly(listDataEvent);
+		int a=lowIndex(listDataEvent);
+
+		final
+		int b=highIndex(listDataEvent);
 
-		list.add(i, null);
+		//NB: a single splice, so that a bulk insert is not quadratic.
+		list.addAll(a, Collections.<T>nCopies(b-a+1, null));
 		assert(list.size()==listModel.getSize());
 	}
 
-	private
-	int singleEntriesOnly(ListDataEvent listDataEvent)
+	public
+	void intervalRemoved(ListDataEvent listDataEvent)
 	{
 		final
-		int a=listDataEvent.getIndex0();
+		int a=lowIndex(listDataEvent);
 
 		final
-		int b=listDataEvent.getIndex1();
-
-		if (a!=b)
-		{
-			throw new UnsupportedOperationException("only operates on one element changes");
-		}
+		int b=highIndex(listDataEvent);
 
-		return a;
+		list.subList(a, b+1).clear();
+		assert(list.size()==listModel.getSize());
 	}
 
 	public
-	void intervalRemoved(ListDataEvent listDataEvent)
+	void contentsChanged(ListDataEvent listDataEvent)
 	{
 		final
-		int i=singleEntriesOnly(listDataEvent);
+		int a=lowIndex(listDataEvent);
+
+		if (a<0)
+		{
+			//Some models signal "everything may have changed" with a negative index.
+			resize(listModel.getSize());
+			reset();
+			return;
+		}
+
+		final
+		int b=highIndex(listDataEvent);
+
+		for (int i=a; i<=b; i++)
+		{
+			list.set(i, null);
+		}
 
-		list.remove(i);
 		assert(list.size()==listModel.getSize());
 	}
 
-	public
-	void contentsChanged(ListDataEvent listDataEvent)
+	private static
+	int lowIndex(ListDataEvent listDataEvent)
+	{
+		return Math.min(listDataEvent.getIndex0(), listDataEvent.getIndex1());
+	}
+
+	private static
+	int highIndex(ListDataEvent listDataEvent)
+	{
+		return Math.max(listDataEvent.getIndex0(), listDataEvent.getIndex1());
+	}
+
+	private
+	void resize(int size)
 	{
 		final
-		int i=singleEntriesOnly(listDataEvent);
+		int oldSize=list.size();
 
-		list.set(i, null);
-		assert(list.size()==listModel.getSize());
+		if (size<oldSize)
+		{
+			list.subList(size, oldSize).clear();
+		}
+		else
+		if (size>oldSize)
+		{
+			list.addAll(Collections.<T>nCopies(size-oldSize, null));
+		}
 	}
 
 	public
@@ -101,6 +147,18 @@ class ShadowList<T> implements ListDataListener, Iterable<T>
 		return list.set(i, t);
 	}
 
+	/**
+	 * Discards all the shadow data, without altering the size (i.e. all entries become 'null' placeholders).
+	 */
+	public
+	void reset()
+	{
+		for (int i=list.size()-1; i>=0; i--)
+		{
+			list.set(i, null);
+		}
+	}
+
 	public
 	Iterator<T> iterator()
 	{
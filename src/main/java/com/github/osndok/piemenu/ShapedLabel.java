@@ -0,0 +1,116 @@
+package com.github.osndok.piemenu;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.TextLayout;
+import java.text.Bidi;
+
+/**
+ * A label that has already been shaped (i.e. turned into positioned glyphs) for a particular font & rendering context,
+ * which is what drawString() would otherwise redo on every call... and is quite expensive for complex scripts. Since
+ * the rendering context includes the rotation, a wedge's label only needs to be reshaped when the label, font, or
+ * angle changes.
+ */
+final
+class ShapedLabel
+{
+	private final
+	String label;
+
+	private final
+	Font font;
+
+	private final
+	FontRenderContext fontRenderContext;
+
+	/**
+	 * Labels that mix left-to-right & right-to-left text need to be reordered, which only TextLayout does; all others
+	 * are laid out (in their own direction) into a GlyphVector, which draws exactly as drawString() would.
+	 */
+	private final
+	GlyphVector glyphVector;
+
+	private final
+	TextLayout textLayout;
+
+	private
+	ShapedLabel(String label, Font font, FontRenderContext fontRenderContext)
+	{
+		this.label = label;
+		this.font = font;
+		this.fontRenderContext = fontRenderContext;
+
+		final
+		char[] chars=label.toCharArray();
+
+		if (label.isEmpty())
+		{
+			this.glyphVector = null;
+			this.textLayout = null;
+		}
+		else
+		if (Bidi.requiresBidi(chars, 0, chars.length))
+		{
+			final
+			Bidi bidi=new Bidi(label, Bidi.DIRECTION_DEFAULT_LEFT_TO_RIGHT);
+
+			if (bidi.isMixed())
+			{
+				this.glyphVector = null;
+				this.textLayout = new TextLayout(label, font, fontRenderContext);
+			}
+			else
+			{
+				final
+				int direction=(bidi.isLeftToRight() ? Font.LAYOUT_LEFT_TO_RIGHT : Font.LAYOUT_RIGHT_TO_LEFT);
+
+				this.glyphVector = font.layoutGlyphVector(fontRenderContext, chars, 0, chars.length, direction);
+				this.textLayout = null;
+			}
+		}
+		else
+		{
+			this.glyphVector = font.layoutGlyphVector(fontRenderContext, chars, 0, chars.length, Font.LAYOUT_LEFT_TO_RIGHT);
+			this.textLayout = null;
+		}
+	}
+
+	/**
+	 * @param previous the shaped label from the last time this wedge was drawn, or null
+	 * @return the previous shaped label if it is still good for drawing the given label with the given graphics
+	 */
+	static
+	ShapedLabel get(ShapedLabel previous, String label, Graphics2D g2)
+	{
+		final
+		Font font=g2.getFont();
+
+		//NB: the context carries the rotation (but not the translation) of the graphics' transform.
+		final
+		FontRenderContext fontRenderContext=g2.getFontRenderContext();
+
+		if (previous!=null
+				&& previous.label.equals(label)
+				&& previous.font.equals(font)
+				&& previous.fontRenderContext.equals(fontRenderContext))
+		{
+			return previous;
+		}
+
+		return new ShapedLabel(label, font, fontRenderContext);
+	}
+
+	void draw(Graphics2D g2, float x, float y)
+	{
+		if (glyphVector!=null)
+		{
+			g2.drawGlyphVector(glyphVector, x, y);
+		}
+		else
+		if (textLayout!=null)
+		{
+			textLayout.draw(g2, x, y);
+		}
+	}
+}
@@ -0,0 +1,311 @@
+package com.github.osndok.piemenu;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.image.BufferedImage;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parts of a pie menu that depend only on how it looks (its labels, colors, & font), and not on which component
+ * it is: the geometry, and the prerendered wheel, rings, & highlights. Menus that look the same (such as one context
+ * menu definition attached to many components) share a single one, which is reference-counted so that it is dropped
+ * as soon as no menu is using it.
+ *
+ * Only the menus hold their wheels strongly; the registry of shared wheels merely refers to them weakly, so that a
+ * menu which is abandoned without ever releasing its wheel (e.g. one that was never added to a container, and so
+ * never sees removeNotify()) does not pin the wheel's images for the life of the VM.
+ *
+ * The images are filled in (by PieMenu) as they are first painted, which only happens on the EDT... or else a wheel
+ * is prepared (and drawn) on another thread, where no other menu can see it until it is adopted on the EDT.
+ */
+final
+class SharedWheel
+{
+	private static final
+	Map<Key, WheelReference> sharedWheels = new HashMap<Key, WheelReference>();
+
+	/**
+	 * Where the references to wheels that were collected (without being released) turn up, to be expunged.
+	 */
+	private static final
+	ReferenceQueue<SharedWheel> collectedWheels = new ReferenceQueue<SharedWheel>();
+
+	private final
+	Key key;
+
+	final
+	PieMenuLayout layout;
+
+	private
+	int references;
+
+	/**
+	 * The static part of the wheel (wedges, labels, & hub), or null if it has not been drawn yet.
+	 */
+	BufferedImage wheelImage;
+
+	/**
+	 * Each ring of the wheel is also prerendered separately (along with a 'signature' of what it was drawn from),
+	 * so that when a menu changes, only the rings that actually look different need to be drawn again.
+	 */
+	List<BufferedImage> ringImages = Collections.emptyList();
+
+	List<List<Object>> ringSignatures = Collections.emptyList();
+
+	/**
+	 * The highlighted look of each wedge, prerendered when the wedge is first highlighted.
+	 */
+	BufferedImage[] highlightImages;
+
+	private
+	SharedWheel(Key key, FontMetrics fontMetrics)
+	{
+		this.key = key;
+		this.layout = new PieMenuLayout(key.labels, fontMetrics);
+	}
+
+	/**
+	 * Each call must (eventually) be matched by a call to release().
+	 *
+	 * @param wedgeStore the colors of each wedge, which are also part of the wheel's appearance
+	 * @return the wheel for a menu that looks like this, which may be (or become) shared with other menus
+	 */
+	static synchronized
+	SharedWheel acquire(String[] labels, WedgeStore wedgeStore, FontMetrics fontMetrics, Color hubColor)
+	{
+		final
+		Key key=new Key(labels, wedgeStore, fontMetrics, hubColor);
+
+		SharedWheel retval=get(key);
+
+		if (retval==null)
+		{
+			retval=new SharedWheel(key, fontMetrics);
+			sharedWheels.put(key, new WheelReference(retval));
+		}
+
+		retval.references++;
+
+		return retval;
+	}
+
+	/**
+	 * @return a wheel that is not (yet) shared with any menu, which may be drawn on any thread, and then adopt()ed
+	 */
+	static
+	SharedWheel prepare(String[] labels, WedgeStore wedgeStore, FontMetrics fontMetrics, Color hubColor)
+	{
+		return new SharedWheel(new Key(labels, wedgeStore, fontMetrics, hubColor), fontMetrics);
+	}
+
+	/**
+	 * Like acquire(), but for a wheel that was prepare()d in the background: if an identical wheel is already in use,
+	 * that one is returned instead (taking the prepared images, if it has not been drawn yet). Must be called on the EDT.
+	 */
+	static synchronized
+	SharedWheel adopt(SharedWheel prepared)
+	{
+		SharedWheel retval=get(prepared.key);
+
+		if (retval==null)
+		{
+			retval=prepared;
+			sharedWheels.put(prepared.key, new WheelReference(retval));
+		}
+		else
+		if (retval.wheelImage==null && prepared.wheelImage!=null)
+		{
+			retval.ringImages=prepared.ringImages;
+			retval.ringSignatures=prepared.ringSignatures;
+			retval.highlightImages=prepared.highlightImages;
+			retval.wheelImage=prepared.wheelImage;
+		}
+
+		retval.references++;
+
+		return retval;
+	}
+
+	static synchronized
+	void release(SharedWheel sharedWheel)
+	{
+		sharedWheel.references--;
+
+		if (sharedWheel.references==0 && get(sharedWheel.key)==sharedWheel)
+		{
+			sharedWheels.remove(sharedWheel.key);
+		}
+	}
+
+	/**
+	 * @return how many distinct wheels are in use
+	 */
+	static synchronized
+	int getNumSharedWheels()
+	{
+		expungeCollectedWheels();
+		return sharedWheels.size();
+	}
+
+	/**
+	 * Must be called while holding the class lock.
+	 *
+	 * @return the registered wheel for the given key, or null if there is none (or it has been collected)
+	 */
+	private static
+	SharedWheel get(Key key)
+	{
+		expungeCollectedWheels();
+
+		final
+		WheelReference reference=sharedWheels.get(key);
+
+		return (reference==null ? null : reference.get());
+	}
+
+	/**
+	 * Forgets the wheels whose menus were all collected without releasing them. Must be called while holding the
+	 * class lock.
+	 */
+	private static
+	void expungeCollectedWheels()
+	{
+		WheelReference reference;
+
+		while ((reference=(WheelReference) collectedWheels.poll())!=null)
+		{
+			//NB: the key may since have been registered again, to a new wheel.
+			if (sharedWheels.get(reference.key)==reference)
+			{
+				sharedWheels.remove(reference.key);
+			}
+		}
+	}
+
+	Font getFont()
+	{
+		return key.font;
+	}
+
+	Color getHubColor()
+	{
+		return key.hubColor;
+	}
+
+	/**
+	 * @return the (packed ARGB) color of the given wedge's label
+	 */
+	int getForegroundColor(int i)
+	{
+		return key.foregroundColors[i];
+	}
+
+	int getBackgroundColor(int i)
+	{
+		return key.backgroundColors[i];
+	}
+
+	/**
+	 * If this wheel has not been drawn yet, lets it reuse the ring images of the wheel that a menu had before it
+	 * changed (where they are still the same).
+	 */
+	void inheritRings(SharedWheel previous)
+	{
+		if (wheelImage==null && ringImages.isEmpty())
+		{
+			ringImages=previous.ringImages;
+			ringSignatures=previous.ringSignatures;
+		}
+	}
+
+	private static final
+	class WheelReference extends WeakReference<SharedWheel>
+	{
+		final
+		Key key;
+
+		WheelReference(SharedWheel sharedWheel)
+		{
+			super(sharedWheel, collectedWheels);
+			this.key = sharedWheel.key;
+		}
+	}
+
+	private static final
+	class Key
+	{
+		final
+		String[] labels;
+
+		final
+		int[] foregroundColors;
+
+		final
+		int[] backgroundColors;
+
+		final
+		Font font;
+
+		final
+		FontRenderContext fontRenderContext;
+
+		final
+		Color hubColor;
+
+		final
+		int hashCode;
+
+		Key(String[] labels, WedgeStore wedgeStore, FontMetrics fontMetrics, Color hubColor)
+		{
+			this.labels = labels;
+			this.foregroundColors = wedgeStore.getForegroundColors();
+			this.backgroundColors = wedgeStore.getBackgroundColors();
+			this.font = fontMetrics.getFont();
+			this.fontRenderContext = fontMetrics.getFontRenderContext();
+			this.hubColor = hubColor;
+
+			int hash=Arrays.hashCode(labels);
+			hash=31*hash+Arrays.hashCode(foregroundColors);
+			hash=31*hash+Arrays.hashCode(backgroundColors);
+			hash=31*hash+font.hashCode();
+			hash=31*hash+fontRenderContext.hashCode();
+			hash=31*hash+(hubColor==null ? 0 : hubColor.hashCode());
+
+			this.hashCode = hash;
+		}
+
+		@Override
+		public
+		boolean equals(Object o)
+		{
+			if (!(o instanceof Key))
+			{
+				return false;
+			}
+
+			final
+			Key that=(Key)o;
+
+			return hashCode==that.hashCode
+					   && Arrays.equals(labels, that.labels)
+					   && Arrays.equals(foregroundColors, that.foregroundColors)
+					   && Arrays.equals(backgroundColors, that.backgroundColors)
+					   && font.equals(that.font)
+					   && fontRenderContext.equals(that.fontRenderContext)
+					   && (hubColor==null ? that.hubColor==null : hubColor.equals(that.hubColor));
+		}
+
+		@Override
+		public
+		int hashCode()
+		{
+			return hashCode;
+		}
+	}
+}
@@ -0,0 +1,204 @@
+package com.github.osndok.piemenu;
+
+import javax.swing.*;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the submenu models that a SubMenuLoader has produced (including the fact that an element has no
+ * submenu), keyed by the parent's model element, for a limited time. Also keeps track of which loads are still in
+ * progress, so that hovering back-and-forth over a wedge does not start the same lookup twice.
+ *
+ * Each load belongs to a generation, which is bumped whenever the loader is replaced (see clear()), so that the
+ * results of the old loader's loads are recognized (& discarded) when they arrive, without holding up the new
+ * loader's own loads of the same values. A load that never finishes (e.g. one that hangs) is only waited upon for as
+ * long as a result would be remembered, after which the value may be loaded again.
+ *
+ * Only to be used from the EDT.
+ */
+class SubMenuCache
+{
+	/**
+	 * In the order that they were loaded (and so, of expiry).
+	 */
+	private final
+	Map<Object, Loaded> loaded = new LinkedHashMap<Object, Loaded>();
+
+	/**
+	 * When each load that is still in progress was started.
+	 */
+	private final
+	Map<Object, Long> pending = new HashMap<Object, Long>();
+
+	private
+	long timeToLiveNanos;
+
+	private
+	int generation;
+
+	SubMenuCache(long timeToLiveNanos)
+	{
+		this.timeToLiveNanos = timeToLiveNanos;
+	}
+
+	void setTimeToLiveNanos(long timeToLiveNanos)
+	{
+		this.timeToLiveNanos = timeToLiveNanos;
+	}
+
+	/**
+	 * @return true if there is a (still fresh) answer for the given value, even if that answer is "no submenu"
+	 */
+	boolean contains(Object value)
+	{
+		final
+		Loaded retval=loaded.get(value);
+
+		if (retval==null)
+		{
+			return false;
+		}
+
+		if (System.nanoTime()-retval.loadedAt>timeToLiveNanos)
+		{
+			loaded.remove(value);
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return the cached submenu model, or null if there is none (or it has expired)
+	 */
+	ListModel<?> get(Object value)
+	{
+		if (contains(value))
+		{
+			return loaded.get(value).model;
+		}
+		else
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * @return the generation that loads started now belong to, which must be given back when they are done
+	 */
+	int getGeneration()
+	{
+		return generation;
+	}
+
+	/**
+	 * @return true if the caller should start loading the given value (i.e. it is neither cached nor in progress)
+	 */
+	boolean startLoading(Object value)
+	{
+		if (contains(value))
+		{
+			return false;
+		}
+
+		final
+		long now=System.nanoTime();
+
+		final
+		Long startedAt=pending.get(value);
+
+		if (startedAt!=null && now-startedAt<=timeToLiveNanos)
+		{
+			return false;
+		}
+
+		pending.put(value, now);
+		return true;
+	}
+
+	/**
+	 * @return false if the load belonged to an earlier generation, in which case its result is discarded
+	 */
+	boolean finishedLoading(Object value, int generation, ListModel<?> model)
+	{
+		if (generation!=this.generation)
+		{
+			return false;
+		}
+
+		final
+		long now=System.nanoTime();
+
+		pending.remove(value);
+		evictExpired(now);
+
+		//NB: removed first, so that a reloaded value moves to the end of the (expiry) order.
+		loaded.remove(value);
+		loaded.put(value, new Loaded(model, now));
+
+		return true;
+	}
+
+	/**
+	 * Lets the given value be loaded again (the next time it is asked for), unless the failed load belonged to an
+	 * earlier generation.
+	 */
+	void failedLoading(Object value, int generation)
+	{
+		if (generation==this.generation)
+		{
+			pending.remove(value);
+		}
+	}
+
+	/**
+	 * Forgets everything that has been loaded, and everything that is being loaded, e.g. because the loader changed.
+	 */
+	void clear()
+	{
+		loaded.clear();
+		pending.clear();
+		generation++;
+	}
+
+	/**
+	 * Drops the results that have outlived their time-to-live, even if they are never asked for again.
+	 */
+	private
+	void evictExpired(long now)
+	{
+		final
+		Iterator<Loaded> i=loaded.values().iterator();
+
+		while (i.hasNext() && now-i.next().loadedAt>timeToLiveNanos)
+		{
+			i.remove();
+		}
+	}
+
+	/**
+	 * @return how many results are being remembered (whether or not they have expired yet)
+	 */
+	int size()
+	{
+		return loaded.size();
+	}
+
+	private static
+	class Loaded
+	{
+		final
+		ListModel<?> model;
+
+		final
+		long loadedAt;
+
+		Loaded(ListModel<?> model, long loadedAt)
+		{
+			this.model = model;
+			this.loadedAt = loadedAt;
+		}
+	}
+}
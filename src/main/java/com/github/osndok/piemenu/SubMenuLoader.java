@@ -0,0 +1,19 @@
+package com.github.osndok.piemenu;
+
+import javax.swing.*;
+
+/**
+ * Supplies the submenus of a PieMenu, but only when they are (likely to be) needed... i.e. when the mouse moves
+ * over the parent wedge. As submenus are often backed by slow lookups, this is never called on the EDT; the result
+ * is handed back to the EDT, and remembered for a while (see PieMenu.setSubMenuTimeToLive()).
+ */
+public
+interface SubMenuLoader
+{
+	/**
+	 * @param value the model element of the parent wedge
+	 * @return the model of the submenu, or null if the given element does not have a submenu
+	 * @throws Exception if the submenu could not be loaded (it will be tried again the next time the wedge is entered)
+	 */
+	ListModel<?> loadSubMenu(Object value) throws Exception;
+}
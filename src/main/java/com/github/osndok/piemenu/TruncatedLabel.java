@@ -0,0 +1,146 @@
+package com.github.osndok.piemenu;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+
+/**
+ * What is actually drawn for a label, given the width that its ring allows: either the whole label, or else the
+ * longest prefix of it that fits with an ellipsis after it. Since BasicTableWidthOptimizer deliberately gives outlier
+ * labels less room than they need, this saves drawing (& then clipping away) the glyphs that would not be seen.
+ *
+ * The prefix is found with a binary search over the widths of the label's prefixes, so a long label is only measured
+ * a handful of times; and (like ShapedLabel) the result is kept on the entry until its label, width, or font changes.
+ */
+final
+class TruncatedLabel
+{
+	static final
+	String ELLIPSIS = "\u2026";
+
+	private final
+	String label;
+
+	private final
+	int width;
+
+	private final
+	Font font;
+
+	private final
+	FontRenderContext fontRenderContext;
+
+	/**
+	 * The label, or a prefix of it followed by an ellipsis.
+	 */
+	private final
+	String text;
+
+	/**
+	 * False if not even an ellipsis fits in the width, in which case the text must still be clipped.
+	 */
+	private final
+	boolean fits;
+
+	private
+	TruncatedLabel(String label, int width, FontMetrics fontMetrics)
+	{
+		this.label = label;
+		this.width = width;
+		this.font = fontMetrics.getFont();
+		this.fontRenderContext = fontMetrics.getFontRenderContext();
+
+		final
+		char[] chars=label.toCharArray();
+
+		if (fontMetrics.charsWidth(chars, 0, chars.length)<=width)
+		{
+			this.text = label;
+			this.fits = true;
+			return;
+		}
+
+		final
+		int prefixWidth=width-fontMetrics.stringWidth(ELLIPSIS);
+
+		if (prefixWidth<0)
+		{
+			this.text = ELLIPSIS;
+			this.fits = false;
+			return;
+		}
+
+		int length=getLongestPrefix(chars, prefixWidth, fontMetrics);
+
+		//e.g. "Open\u2026" rather than "Open \u2026"
+		while (length>0 && Character.isWhitespace(chars[length-1]))
+		{
+			length--;
+		}
+
+		this.text = new String(chars, 0, length)+ELLIPSIS;
+		this.fits = true;
+	}
+
+	/**
+	 * @param previous the truncated label from the last time this wedge was drawn, or null
+	 * @return the previous truncated label if it is still good for the given label, width, & metrics
+	 */
+	static
+	TruncatedLabel get(TruncatedLabel previous, String label, int width, FontMetrics fontMetrics)
+	{
+		if (previous!=null
+				&& previous.width==width
+				&& previous.label.equals(label)
+				&& previous.font.equals(fontMetrics.getFont())
+				&& previous.fontRenderContext.equals(fontMetrics.getFontRenderContext()))
+		{
+			return previous;
+		}
+
+		return new TruncatedLabel(label, width, fontMetrics);
+	}
+
+	/**
+	 * @return the length of the longest prefix of the (too wide) label that is no wider than the given width
+	 */
+	private static
+	int getLongestPrefix(char[] chars, int width, FontMetrics fontMetrics)
+	{
+		//NB: the whole label is known not to fit, and the empty prefix always does.
+		int low=0;
+		int high=chars.length-1;
+
+		while (low<high)
+		{
+			final
+			int middle=(low+high+1)>>>1;
+
+			if (fontMetrics.charsWidth(chars, 0, middle)<=width)
+			{
+				low=middle;
+			}
+			else
+			{
+				high=middle-1;
+			}
+		}
+
+		//Never split a surrogate pair (the shorter prefix must fit, too).
+		if (low>0 && Character.isHighSurrogate(chars[low-1]))
+		{
+			low--;
+		}
+
+		return low;
+	}
+
+	String getText()
+	{
+		return text;
+	}
+
+	boolean fits()
+	{
+		return fits;
+	}
+}
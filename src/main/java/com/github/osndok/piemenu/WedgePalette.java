@@ -0,0 +1,102 @@
+package com.github.osndok.piemenu;
+
+import java.awt.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Since the text & background colors of a wedge are entirely determined by its hue, and nobody can tell the
+ * difference between hues that are less than 1/1024th of the color wheel apart, the colors are interned (by
+ * quantized hue) and shared by all the wedges of all the pie menus, rather than each wedge having its own pair.
+ */
+class WedgePalette
+{
+	private static final
+	int RESOLUTION = 1024;
+
+	private static final
+	float WEDGE_BACKGROUND_SATURATION = 0.3f;
+
+	private static final
+	float WEDGE_BACKGROUND_BRIGHTNESS = 0.94f;
+
+	private static final
+	float WEDGE_TEXT_SATURATION = 1.0f;
+
+	private static final
+	float WEDGE_TEXT_BRIGHTNESS = 0.3f;
+
+	private static final
+	AtomicReferenceArray<Color> textColors = new AtomicReferenceArray<Color>(RESOLUTION);
+
+	private static final
+	AtomicReferenceArray<Color> backgroundColors = new AtomicReferenceArray<Color>(RESOLUTION);
+
+	private
+	WedgePalette()
+	{
+		//no instances
+	}
+
+	/**
+	 * @return the index of the nearest of the RESOLUTION evenly-spaced hues (where 1.0 wraps around to 0.0)
+	 */
+	static
+	int quantize(float hue)
+	{
+		final
+		int retval=Math.round(hue*RESOLUTION)%RESOLUTION;
+
+		if (retval<0)
+		{
+			return retval+RESOLUTION;
+		}
+		else
+		{
+			return retval;
+		}
+	}
+
+	static
+	Color getTextColor(float hue)
+	{
+		final
+		int i=quantize(hue);
+
+		Color retval=textColors.get(i);
+
+		if (retval==null)
+		{
+			retval=new Color(Color.HSBtoRGB(((float)i)/RESOLUTION, WEDGE_TEXT_SATURATION, WEDGE_TEXT_BRIGHTNESS));
+
+			//NB: if another thread got there first, use theirs, so that there is only ever one instance per hue.
+			if (!textColors.compareAndSet(i, null, retval))
+			{
+				retval=textColors.get(i);
+			}
+		}
+
+		return retval;
+	}
+
+	static
+	Color getBackgroundColor(float hue)
+	{
+		final
+		int i=quantize(hue);
+
+		Color retval=backgroundColors.get(i);
+
+		if (retval==null)
+		{
+			retval=new Color(Color.HSBtoRGB(((float)i)/RESOLUTION, WEDGE_BACKGROUND_SATURATION, WEDGE_BACKGROUND_BRIGHTNESS));
+
+			//NB: if another thread got there first, use theirs, so that there is only ever one instance per hue.
+			if (!backgroundColors.compareAndSet(i, null, retval))
+			{
+				retval=backgroundColors.get(i);
+			}
+		}
+
+		return retval;
+	}
+}
@@ -0,0 +1,219 @@
+package com.github.osndok.piemenu;
+
+import javax.swing.*;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * The per-wedge colors of a menu (packed ARGB, & whether they have been derived yet) kept in parallel primitive
+ * arrays, rather than as fields of an object per wedge, so that walking all the wedges (e.g. to key a shared wheel)
+ * is a walk through contiguous memory. When it follows a model, it is spliced in step with the model's events (in the manner
+ * of ShadowList); otherwise (e.g. for one page of a paged menu) it is simply a fixed number of wedges.
+ */
+final
+class WedgeStore implements ListDataListener
+{
+	private static final
+	int MINIMUM_CAPACITY = 16;
+
+	/**
+	 * The model being followed, or null if the number of wedges is fixed.
+	 */
+	private final
+	ListModel<?> listModel;
+
+	private
+	int size;
+
+	private
+	int[] foregroundColors;
+
+	private
+	int[] backgroundColors;
+
+	/**
+	 * False where a wedge's colors have not been derived yet (e.g. its element was just added, or has changed).
+	 */
+	private
+	boolean[] colored;
+
+	WedgeStore(ListModel<?> listModel)
+	{
+		this.listModel = listModel;
+		this.size = listModel.getSize();
+		allocate(size);
+		listModel.addListDataListener(this);
+	}
+
+	WedgeStore(int size)
+	{
+		this.listModel = null;
+		this.size = size;
+		allocate(size);
+	}
+
+	private
+	void allocate(int capacity)
+	{
+		capacity=Math.max(MINIMUM_CAPACITY, capacity);
+
+		foregroundColors=new int[capacity];
+		backgroundColors=new int[capacity];
+		colored=new boolean[capacity];
+	}
+
+	/**
+	 * @return a (fixed-size) copy of this store, which another thread may use on its own
+	 */
+	WedgeStore copy()
+	{
+		final
+		WedgeStore retval=new WedgeStore(size);
+		{
+			System.arraycopy(foregroundColors, 0, retval.foregroundColors, 0, size);
+			System.arraycopy(backgroundColors, 0, retval.backgroundColors, 0, size);
+			System.arraycopy(colored, 0, retval.colored, 0, size);
+		}
+
+		return retval;
+	}
+
+	/**
+	 * Stops following the model, which is only needed if the model will outlive this store.
+	 */
+	void dispose()
+	{
+		if (listModel!=null)
+		{
+			listModel.removeListDataListener(this);
+		}
+	}
+
+	int size()
+	{
+		return size;
+	}
+
+	boolean isColored(int i)
+	{
+		return colored[i];
+	}
+
+	void setColors(int i, Color foregroundColor, Color backgroundColor)
+	{
+		foregroundColors[i]=foregroundColor.getRGB();
+		backgroundColors[i]=backgroundColor.getRGB();
+		colored[i]=true;
+	}
+
+	/**
+	 * @return the (packed ARGB) color of the given wedge's label
+	 */
+	int getForegroundColor(int i)
+	{
+		return foregroundColors[i];
+	}
+
+	int getBackgroundColor(int i)
+	{
+		return backgroundColors[i];
+	}
+
+	/**
+	 * @return the (packed ARGB) label colors of all the wedges, in a new array
+	 */
+	int[] getForegroundColors()
+	{
+		return Arrays.copyOf(foregroundColors, size);
+	}
+
+	int[] getBackgroundColors()
+	{
+		return Arrays.copyOf(backgroundColors, size);
+	}
+
+	/**
+	 * Forgets the colors of every wedge (e.g. when the colorization scheme changes), without changing the size.
+	 */
+	void reset()
+	{
+		Arrays.fill(colored, 0, size, false);
+	}
+
+	public
+	void intervalAdded(ListDataEvent listDataEvent)
+	{
+		final
+		int a=lowIndex(listDataEvent);
+
+		final
+		int count=highIndex(listDataEvent)-a+1;
+
+		if (size+count>colored.length)
+		{
+			final
+			int capacity=Math.max(size+count, 2*colored.length);
+
+			foregroundColors=Arrays.copyOf(foregroundColors, capacity);
+			backgroundColors=Arrays.copyOf(backgroundColors, capacity);
+			colored=Arrays.copyOf(colored, capacity);
+		}
+
+		//NB: a single splice (per array), so that a bulk insert is not quadratic.
+		move(a, a+count, size-a);
+		Arrays.fill(colored, a, a+count, false);
+		size+=count;
+	}
+
+	public
+	void intervalRemoved(ListDataEvent listDataEvent)
+	{
+		final
+		int a=lowIndex(listDataEvent);
+
+		final
+		int b=highIndex(listDataEvent);
+
+		move(b+1, a, size-b-1);
+		size-=b-a+1;
+	}
+
+	public
+	void contentsChanged(ListDataEvent listDataEvent)
+	{
+		final
+		int a=lowIndex(listDataEvent);
+
+		if (a<0)
+		{
+			//Some models signal "everything may have changed" with a negative index.
+			size=listModel.getSize();
+			allocate(size);
+			return;
+		}
+
+		Arrays.fill(colored, a, highIndex(listDataEvent)+1, false);
+	}
+
+	private
+	void move(int from, int to, int length)
+	{
+		System.arraycopy(foregroundColors, from, foregroundColors, to, length);
+		System.arraycopy(backgroundColors, from, backgroundColors, to, length);
+		System.arraycopy(colored, from, colored, to, length);
+	}
+
+	private static
+	int lowIndex(ListDataEvent listDataEvent)
+	{
+		return Math.min(listDataEvent.getIndex0(), listDataEvent.getIndex1());
+	}
+
+	private static
+	int highIndex(ListDataEvent listDataEvent)
+	{
+		return Math.max(listDataEvent.getIndex0(), listDataEvent.getIndex1());
+	}
+}
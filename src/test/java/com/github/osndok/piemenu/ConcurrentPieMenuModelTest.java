@@ -0,0 +1,237 @@
+package com.github.osndok.piemenu;
+
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import javax.swing.text.Position;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public
+class ConcurrentPieMenuModelTest extends TestCase
+{
+	private
+	ConcurrentPieMenuModel<String> model;
+
+	private
+	ShadowList<String> shadowList;
+
+	private
+	List<ListDataEvent> events;
+
+	@Override
+	protected
+	void setUp()
+	{
+		model=new ConcurrentPieMenuModel<String>(Arrays.asList("alpha", "beta", "gamma"));
+		shadowList=new ShadowList<String>(model);
+		events=new ArrayList<ListDataEvent>();
+
+		model.addListDataListener(new ListDataListener()
+		{
+			public
+			void intervalAdded(ListDataEvent listDataEvent)
+			{
+				events.add(listDataEvent);
+			}
+
+			public
+			void intervalRemoved(ListDataEvent listDataEvent)
+			{
+				events.add(listDataEvent);
+			}
+
+			public
+			void contentsChanged(ListDataEvent listDataEvent)
+			{
+				events.add(listDataEvent);
+			}
+		});
+	}
+
+	public
+	void testAddsFromManyThreadsAreDeliveredAsOneEvent() throws Exception
+	{
+		//NB: the EDT is kept busy until every worker is done, so that nothing can be delivered half-way through.
+		SwingUtilities.invokeAndWait(new Runnable()
+		{
+			public
+			void run()
+			{
+				final
+				Thread[] workers=new Thread[4];
+
+				for (int t=0; t<workers.length; t++)
+				{
+					final
+					String prefix="worker-"+t+"-";
+
+					workers[t]=new Thread(new Runnable()
+					{
+						public
+						void run()
+						{
+							for (int i=0; i<250; i++)
+							{
+								model.add(prefix+i);
+							}
+						}
+					});
+
+					workers[t].start();
+				}
+
+				for (Thread worker : workers)
+				{
+					join(worker);
+				}
+
+				//Nothing changes for the listeners until it is delivered...
+				assertEquals(3, model.getSize());
+
+				model.flush();
+			}
+		});
+
+		assertEquals(1003, model.getSize());
+		assertEquals(1003, shadowList.size());
+		assertEquals(1, events.size());
+		assertEquals(ListDataEvent.INTERVAL_ADDED, events.get(0).getType());
+		assertEquals(3, events.get(0).getIndex0());
+		assertEquals(1002, events.get(0).getIndex1());
+	}
+
+	public
+	void testMixedChangesLeaveTheSameContents() throws Exception
+	{
+		SwingUtilities.invokeAndWait(new Runnable()
+		{
+			public
+			void run()
+			{
+				model.add("delta");
+				model.remove(1);
+				model.set(0, "ALPHA");
+				model.add(1, "epsilon");
+				model.removeElement("gamma");
+				model.flush();
+			}
+		});
+
+		assertEquals(Arrays.asList("ALPHA", "epsilon", "delta"), getContents());
+		assertEquals(3, shadowList.size());
+
+		//Same size, so it can only have changed in place.
+		assertEquals(1, events.size());
+		assertEquals(ListDataEvent.CONTENTS_CHANGED, events.get(0).getType());
+
+		events.clear();
+
+		SwingUtilities.invokeAndWait(new Runnable()
+		{
+			public
+			void run()
+			{
+				model.clear();
+				model.flush();
+			}
+		});
+
+		assertEquals(0, model.getSize());
+		assertEquals(0, shadowList.size());
+		assertEquals(1, events.size());
+		assertEquals(ListDataEvent.INTERVAL_REMOVED, events.get(0).getType());
+	}
+
+	public
+	void testChangesAreDeliveredWithoutBeingFlushed() throws Exception
+	{
+		model.add("delta");
+
+		final
+		long deadline=System.currentTimeMillis()+5000;
+
+		while (getSizeOnEdt()!=4)
+		{
+			assertTrue("never delivered", System.currentTimeMillis()<deadline);
+			Thread.sleep(10);
+		}
+
+		assertEquals(1, events.size());
+	}
+
+	public
+	void testMenuFollowsTheModel() throws Exception
+	{
+		final
+		PieMenu<String> pieMenu=new PieMenu<String>(model);
+
+		model.addAll(Arrays.asList("delta", "epsilon"));
+		flushOnEdt();
+
+		assertEquals(5, pieMenu.getModel().getSize());
+		assertEquals(4, pieMenu.getNextMatch("EP", 0, Position.Bias.Forward));
+	}
+
+	private
+	void flushOnEdt() throws Exception
+	{
+		SwingUtilities.invokeAndWait(new Runnable()
+		{
+			public
+			void run()
+			{
+				model.flush();
+			}
+		});
+	}
+
+	private static
+	void join(Thread thread)
+	{
+		try
+		{
+			thread.join();
+		}
+		catch (InterruptedException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	private
+	int getSizeOnEdt() throws Exception
+	{
+		final
+		int[] retval=new int[1];
+
+		SwingUtilities.invokeAndWait(new Runnable()
+		{
+			public
+			void run()
+			{
+				retval[0]=model.getSize();
+			}
+		});
+
+		return retval[0];
+	}
+
+	private
+	List<String> getContents()
+	{
+		final
+		List<String> retval=new ArrayList<String>();
+		{
+			for (int i=0; i<model.getSize(); i++)
+			{
+				retval.add(model.getElementAt(i));
+			}
+		}
+
+		return retval;
+	}
+}
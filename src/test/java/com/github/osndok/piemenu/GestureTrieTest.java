@@ -0,0 +1,115 @@
+package com.github.osndok.piemenu;
+
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public
+class GestureTrieTest extends TestCase
+{
+	private static final
+	int MINIMUM_SEGMENT_LENGTH = 10;
+
+	private
+	GestureTrie gestureTrie;
+
+	private
+	int numLoads;
+
+	@Override
+	protected
+	void setUp() throws Exception
+	{
+		//NB: with four wedges (clockwise from 'noon'), each one fills a quadrant.
+		final
+		Map<Object, ListModel<?>> subMenus=new HashMap<Object, ListModel<?>>();
+		{
+			subMenus.put("Edit", createModel("Copy", "Paste", "Transform", "Cut"));
+			subMenus.put("Transform", createModel("Rotate", "Scale", "Skew", "Flip"));
+		}
+
+		final
+		SubMenuLoader subMenuLoader=new SubMenuLoader()
+		{
+			public
+			ListModel<?> loadSubMenu(Object value)
+			{
+				numLoads++;
+				return subMenus.get(value);
+			}
+		};
+
+		final
+		FontMetrics fontMetrics;
+		{
+			final
+			Graphics2D g2=new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+
+			fontMetrics=g2.getFontMetrics(new Font("Dialog", Font.PLAIN, 12));
+			g2.dispose();
+		}
+
+		gestureTrie=GestureTrie.compile(createModel("File", "Edit", "View", "Help"), subMenuLoader, fontMetrics, 3);
+	}
+
+	private static
+	ListModel<String> createModel(String... values)
+	{
+		final
+		DefaultListModel<String> retval=new DefaultListModel<String>();
+		{
+			for (String value : values)
+			{
+				retval.addElement(value);
+			}
+		}
+
+		return retval;
+	}
+
+	public
+	void testEveryEntryIsLoadedOnceAtCompileTime()
+	{
+		assertEquals(12, numLoads);
+	}
+
+	public
+	void testZigZagWalksDownSubmenus()
+	{
+		//down-right (Edit), down-left (Transform), up-right (Rotate)
+		final
+		List<Point> stroke=Arrays.asList(new Point(100, 100), new Point(120, 120), new Point(140, 140),
+											new Point(120, 160), new Point(100, 180), new Point(120, 160),
+											new Point(140, 140));
+
+		assertEquals(3, GestureTrie.segment(stroke, MINIMUM_SEGMENT_LENGTH).length);
+		assertEquals("Rotate", gestureTrie.resolve(stroke, MINIMUM_SEGMENT_LENGTH));
+	}
+
+	public
+	void testStrokePastALeafLeadsNowhere()
+	{
+		//up-right (File, which has no submenu), then down-right
+		final
+		List<Point> stroke=Arrays.asList(new Point(100, 100), new Point(140, 60), new Point(180, 100));
+
+		assertNull(gestureTrie.resolve(stroke, MINIMUM_SEGMENT_LENGTH));
+	}
+
+	public
+	void testJitterDoesNotMakeSegments()
+	{
+		final
+		List<Point> stroke=Arrays.asList(new Point(100, 100), new Point(102, 99), new Point(101, 103),
+											new Point(80, 120), new Point(60, 140));
+
+		assertEquals(1, GestureTrie.segment(stroke, MINIMUM_SEGMENT_LENGTH).length);
+		assertEquals("View", gestureTrie.resolve(stroke, MINIMUM_SEGMENT_LENGTH));
+	}
+}
@@ -0,0 +1,39 @@
+package com.github.osndok.piemenu;
+
+import junit.framework.TestCase;
+
+import java.util.Locale;
+
+public
+class LabelHueStoreTest extends TestCase
+{
+	public
+	void testAsciiHueMatchesTheLowerCasedHash()
+	{
+		for (String label : new String[]{"Copy", "PASTE", "Select All", "Open Recent File", "Print...", "a", ""})
+		{
+			assertEquals(label, getExpectedHue(label.toLowerCase(Locale.ROOT).hashCode()), LabelHueStore.computeHue(label));
+		}
+	}
+
+	public
+	void testHueIsCaseInsensitive()
+	{
+		assertEquals(LabelHueStore.computeHue("select all"), LabelHueStore.computeHue("Select All"));
+		assertEquals(LabelHueStore.computeHue("select all"), LabelHueStore.computeHue("SELECT ALL"));
+	}
+
+	/**
+	 * @return the decimal digits of the (absolute) hash, read as a fraction, e.g. 0.1234 for a hash of 1234
+	 */
+	private static
+	float getExpectedHue(int hash)
+	{
+		if (hash==0)
+		{
+			return 0.0f;
+		}
+
+		return (float)Double.parseDouble("0."+Math.abs((long)hash));
+	}
+}
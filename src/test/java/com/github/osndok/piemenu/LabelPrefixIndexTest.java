@@ -0,0 +1,182 @@
+package com.github.osndok.piemenu;
+
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import javax.swing.text.Position;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+public
+class LabelPrefixIndexTest extends TestCase
+{
+	private static final
+	String[] WORDS = {"Copy", "copy link", "Cut", "Paste", "Paste Special", "Print", "Redo", "Replace", "Undo"};
+
+	public
+	void testMatchesAreCaseInsensitive()
+	{
+		final
+		DefaultListModel<String> model=createModel(WORDS);
+
+		final
+		LabelPrefixIndex index=new LabelPrefixIndex(model);
+
+		assertMatches(index, model, "CO");
+		assertMatches(index, model, "P");
+		assertMatches(index, model, "PASTE ");
+		assertMatches(index, model, "Z");
+	}
+
+	/**
+	 * After a long run of random edits (singly & in bulk), the index should agree with a plain scan of the model.
+	 */
+	public
+	void testFollowsModelChanges()
+	{
+		final
+		Random random=new Random(1234);
+
+		final
+		DefaultListModel<String> model=createModel(WORDS);
+
+		final
+		LabelPrefixIndex index=new LabelPrefixIndex(model);
+
+		for (int step=0; step<2000; step++)
+		{
+			final
+			int size=model.getSize();
+
+			switch (random.nextInt(5))
+			{
+				case 0:
+				case 1:
+					model.add(random.nextInt(size+1), WORDS[random.nextInt(WORDS.length)]+" "+step);
+					break;
+
+				case 2:
+					if (size>0)
+					{
+						model.remove(random.nextInt(size));
+					}
+					break;
+
+				case 3:
+					if (size>0)
+					{
+						model.set(random.nextInt(size), WORDS[random.nextInt(WORDS.length)]);
+					}
+					break;
+
+				case 4:
+					if (size>4)
+					{
+						final
+						int a=random.nextInt(size-4);
+
+						model.removeRange(a, a+random.nextInt(4));
+					}
+					break;
+			}
+
+			assertMatches(index, model, LabelPrefixIndex.toKey(WORDS[random.nextInt(WORDS.length)].substring(0, 2)));
+		}
+
+		model.clear();
+		assertMatches(index, model, "C");
+	}
+
+	/**
+	 * A loaded submenu's labels count as matches, even as that submenu changes; but the menu only follows the submenu
+	 * (which may be shared, and outlive it) while something has been typed.
+	 */
+	public
+	void testSubMenuLabelsAreFollowedOnlyDuringTypeAhead() throws Exception
+	{
+		final
+		DefaultListModel<String> subMenu=createModel("Copy");
+
+		final
+		PieMenu<String> pieMenu=new PieMenu<String>(Arrays.asList("File", "Edit"));
+		{
+			pieMenu.setSubMenuExecutor(new Executor()
+			{
+				public
+				void execute(Runnable runnable)
+				{
+					runnable.run();
+				}
+			});
+
+			pieMenu.setSubMenuLoader(new SubMenuLoader()
+			{
+				public
+				ListModel<?> loadSubMenu(Object value)
+				{
+					return "Edit".equals(value) ? subMenu : null;
+				}
+			});
+		}
+
+		SwingUtilities.invokeAndWait(new Runnable()
+		{
+			public
+			void run()
+			{
+				pieMenu.getSubMenuModel(1);
+			}
+		});
+
+		SwingUtilities.invokeAndWait(new Runnable()
+		{
+			public
+			void run()
+			{
+				assertEquals(-1, pieMenu.getNextMatch("PA", 0, Position.Bias.Forward));
+
+				subMenu.addElement("Paste");
+				assertEquals(1, pieMenu.getNextMatch("PA", 0, Position.Bias.Forward));
+
+				pieMenu.setTypeAheadPrefix(null);
+				assertEquals(0, subMenu.getListDataListeners().length);
+			}
+		});
+	}
+
+	private static
+	DefaultListModel<String> createModel(String... values)
+	{
+		final
+		DefaultListModel<String> retval=new DefaultListModel<String>();
+		{
+			for (String value : values)
+			{
+				retval.addElement(value);
+			}
+		}
+
+		return retval;
+	}
+
+	private static
+	void assertMatches(LabelPrefixIndex index, ListModel<?> model, String prefix)
+	{
+		final
+		boolean[] expected=new boolean[model.getSize()];
+		{
+			for (int i=0; i<expected.length; i++)
+			{
+				expected[i]=LabelPrefixIndex.toKey(model.getElementAt(i)).startsWith(LabelPrefixIndex.toKey(prefix));
+			}
+		}
+
+		final
+		boolean[] actual=new boolean[model.getSize()];
+
+		index.markMatches(LabelPrefixIndex.toKey(prefix), actual);
+
+		assertTrue(prefix+": "+Arrays.toString(actual), Arrays.equals(expected, actual));
+	}
+}
@@ -0,0 +1,158 @@
+package com.github.osndok.piemenu;
+
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public
+class MarkingMenuTest extends TestCase
+{
+	private
+	PieMenu<String> pieMenu;
+
+	private
+	MarkingMenu markingMenu;
+
+	private
+	JPanel host;
+
+	private
+	List<String> marked;
+
+	@Override
+	protected
+	void setUp() throws Exception
+	{
+		//NB: wedges run clockwise, starting at 'noon'
+		pieMenu=new PieMenu<String>(Arrays.asList("NE", "SE", "SW", "NW"));
+		host=new JPanel();
+		marked=new ArrayList<String>();
+
+		markingMenu=new MarkingMenu(pieMenu);
+		markingMenu.addActionListener(new ActionListener()
+		{
+			public
+			void actionPerformed(ActionEvent actionEvent)
+			{
+				marked.add(actionEvent.getActionCommand());
+			}
+		});
+	}
+
+	public
+	void testFlickSelectsByDirection()
+	{
+		flick(100, 100, 140, 130);
+		flick(100, 100, 130, 60);
+		flick(100, 100, 50, 90);
+		flick(100, 100, 95, 150);
+
+		assertEquals(Arrays.asList("SE", "NE", "NW", "SW"), marked);
+		assertEquals("SW", pieMenu.getSelectedValue());
+	}
+
+	public
+	void testShortMarkIsIgnored()
+	{
+		flick(100, 100, 103, 102);
+
+		assertTrue(marked.isEmpty());
+		assertTrue(pieMenu.isSelectionEmpty());
+	}
+
+	public
+	void testSlowDragStillCountsAsMovement() throws Exception
+	{
+		final
+		DefaultListModel<String> subMenu=new DefaultListModel<String>();
+		{
+			subMenu.addElement("se-NE");
+			subMenu.addElement("se-SE");
+			subMenu.addElement("se-SW");
+			subMenu.addElement("se-NW");
+		}
+
+		markingMenu.setGestureTrie(GestureTrie.compile(pieMenu.getModel(), new SubMenuLoader()
+		{
+			public
+			ListModel<?> loadSubMenu(Object value)
+			{
+				return "SE".equals(value) ? subMenu : null;
+			}
+		}, pieMenu.getFontMetrics(pieMenu.getFont()), 2));
+
+		final
+		long now=System.currentTimeMillis();
+
+		dispatch(new MouseEvent(host, MouseEvent.MOUSE_PRESSED, now, InputEvent.BUTTON3_DOWN_MASK, 100, 100, 1,
+								   true, MouseEvent.BUTTON3));
+
+		//Down & to the right (into 'SE'), then up & to the right (into its 'NE'), never more than 2px per event.
+		int x=100;
+		int y=100;
+
+		for (int i=0; i<20; i++)
+		{
+			x+=2;
+			y+=2;
+			drag(x, y);
+		}
+
+		for (int i=0; i<20; i++)
+		{
+			x+=2;
+			y-=2;
+			drag(x, y);
+		}
+
+		dispatch(new MouseEvent(host, MouseEvent.MOUSE_RELEASED, now, 0, x, y, 1, true, MouseEvent.BUTTON3));
+
+		assertEquals(Arrays.asList("se-NE"), marked);
+	}
+
+	private
+	void drag(int x, int y)
+	{
+		dispatch(new MouseEvent(host, MouseEvent.MOUSE_DRAGGED, System.currentTimeMillis(),
+								   InputEvent.BUTTON3_DOWN_MASK, x, y, 0, false, MouseEvent.NOBUTTON));
+	}
+
+	private
+	void flick(int fromX, int fromY, int toX, int toY)
+	{
+		final
+		long now=System.currentTimeMillis();
+
+		dispatch(new MouseEvent(host, MouseEvent.MOUSE_PRESSED, now, InputEvent.BUTTON3_DOWN_MASK, fromX, fromY, 1,
+								   true, MouseEvent.BUTTON3));
+		dispatch(new MouseEvent(host, MouseEvent.MOUSE_DRAGGED, now, InputEvent.BUTTON3_DOWN_MASK, toX, toY, 0,
+								   false, MouseEvent.NOBUTTON));
+		dispatch(new MouseEvent(host, MouseEvent.MOUSE_RELEASED, now, 0, toX, toY, 1, true, MouseEvent.BUTTON3));
+	}
+
+	private
+	void dispatch(MouseEvent mouseEvent)
+	{
+		switch (mouseEvent.getID())
+		{
+			case MouseEvent.MOUSE_PRESSED:
+				markingMenu.mousePressed(mouseEvent);
+				break;
+
+			case MouseEvent.MOUSE_DRAGGED:
+				markingMenu.mouseDragged(mouseEvent);
+				break;
+
+			case MouseEvent.MOUSE_RELEASED:
+				markingMenu.mouseReleased(mouseEvent);
+				break;
+		}
+	}
+}
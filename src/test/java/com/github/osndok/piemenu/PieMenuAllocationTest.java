@@ -0,0 +1,106 @@
+package com.github.osndok.piemenu;
+
+import junit.framework.TestCase;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Once the wheel (and each wedge's highlight) has been drawn, repainting should not allocate anything, as garbage
+ * produced while the mouse is moving over a menu shows up as stutter in long-running applications.
+ */
+public
+class PieMenuAllocationTest extends TestCase
+{
+	private static final
+	int WARM_UP_PAINTS = 3000;
+
+	private static final
+	int MEASURED_PAINTS = 500;
+
+	private static final
+	int MEASURED_ROUNDS = 5;
+
+	public
+	void testSteadyStatePaintDoesNotAllocate()
+	{
+		final
+		ThreadMXBean threadMXBean=ManagementFactory.getThreadMXBean();
+
+		if (!(threadMXBean instanceof com.sun.management.ThreadMXBean))
+		{
+			System.err.println("cannot count allocations on this VM, skipping: "+getName());
+			return;
+		}
+
+		final
+		com.sun.management.ThreadMXBean allocationCounter=(com.sun.management.ThreadMXBean) threadMXBean;
+
+		final
+		List<String> labels=new ArrayList<String>();
+		{
+			for (int i=0; i<24; i++)
+			{
+				labels.add("Entry "+i);
+			}
+		}
+
+		final
+		PieMenu<String> pieMenu=new PieMenu<String>(labels);
+		{
+			pieMenu.setFont(new Font("Dialog", Font.PLAIN, 12));
+		}
+
+		final
+		BufferedImage image=new BufferedImage(400, 400, BufferedImage.TYPE_INT_ARGB);
+
+		final
+		Graphics2D g2=image.createGraphics();
+
+		try
+		{
+			for (int i=0; i<WARM_UP_PAINTS; i++)
+			{
+				//NB: moving the highlight around (as the mouse would) between paints.
+				pieMenu.setSelectedIndex(i%labels.size());
+				pieMenu.paint(g2);
+			}
+
+			final
+			long threadId=Thread.currentThread().getId();
+
+			//NB: the JIT may briefly allocate while (de)optimizing, so only the quietest round counts.
+			long leastAllocated=Long.MAX_VALUE;
+
+			for (int round=0; round<MEASURED_ROUNDS && leastAllocated>=MEASURED_PAINTS; round++)
+			{
+				long allocated=0;
+
+				for (int i=0; i<MEASURED_PAINTS; i++)
+				{
+					pieMenu.setSelectedIndex(i%labels.size());
+
+					final
+					long before=allocationCounter.getThreadAllocatedBytes(threadId);
+
+					pieMenu.paint(g2);
+
+					allocated+=allocationCounter.getThreadAllocatedBytes(threadId)-before;
+				}
+
+				leastAllocated=Math.min(leastAllocated, allocated);
+			}
+
+			assertTrue("allocated "+leastAllocated+" bytes in "+MEASURED_PAINTS+" paints",
+						  leastAllocated<MEASURED_PAINTS);
+		}
+		finally
+		{
+			g2.dispose();
+		}
+	}
+}
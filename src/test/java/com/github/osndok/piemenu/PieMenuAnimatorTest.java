@@ -0,0 +1,57 @@
+package com.github.osndok.piemenu;
+
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+public
+class PieMenuAnimatorTest extends TestCase
+{
+	private
+	PieMenu<String> pieMenu;
+
+	private
+	BufferedImage image;
+
+	public
+	void testMenuGrowsFromNothingAndFinishesOnTime() throws Exception
+	{
+		SwingUtilities.invokeAndWait(new Runnable()
+		{
+			public
+			void run()
+			{
+				pieMenu=new PieMenu<String>(Arrays.asList("North", "East", "South", "West"));
+				pieMenu.setOpenAnimationMillis(100);
+				pieMenu.setVisible(false);
+				pieMenu.setVisible(true);
+
+				assertEquals(0.0f, pieMenu.getAnimationProgress());
+				image=pieMenu.renderToImage();
+			}
+		});
+
+		final
+		int center=image.getWidth()/2;
+
+		//Nothing has been drawn yet, not even the hub.
+		assertEquals(0, image.getRGB(center, center)>>>24);
+
+		Thread.sleep(500);
+
+		SwingUtilities.invokeAndWait(new Runnable()
+		{
+			public
+			void run()
+			{
+				assertEquals(1.0f, pieMenu.getAnimationProgress());
+				image=pieMenu.renderToImage();
+			}
+		});
+
+		assertEquals(255, image.getRGB(center, center)>>>24);
+		assertTrue(PieMenuMetrics.get().getAnimationFrameCount()>0);
+	}
+}
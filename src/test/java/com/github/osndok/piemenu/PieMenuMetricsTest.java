@@ -0,0 +1,55 @@
+package com.github.osndok.piemenu;
+
+import junit.framework.TestCase;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+public
+class PieMenuMetricsTest extends TestCase
+{
+	public
+	void testPaintsAreVisibleThroughJmx() throws Exception
+	{
+		final
+		PieMenu<String> pieMenu=new PieMenu<String>(Arrays.asList("Copy", "Paste", "Cut"));
+
+		pieMenu.renderToImage();
+		pieMenu.renderToImage();
+
+		final
+		MBeanServer mBeanServer=ManagementFactory.getPlatformMBeanServer();
+
+		final
+		ObjectName objectName=new ObjectName(PieMenuMetrics.OBJECT_NAME);
+
+		assertTrue(((Long) mBeanServer.getAttribute(objectName, "PaintCount"))>=2);
+		assertTrue(((Long) mBeanServer.getAttribute(objectName, "LayoutCount"))>=1);
+		assertTrue(((Long) mBeanServer.getAttribute(objectName, "WheelImageHits"))>=1);
+	}
+
+	public
+	void testHistogramPercentiles()
+	{
+		final
+		LatencyHistogram histogram=new LatencyHistogram();
+		{
+			for (int i=0; i<99; i++)
+			{
+				histogram.record(1000);
+			}
+
+			histogram.record(1000000);
+		}
+
+		assertEquals(100, histogram.getCount());
+		assertEquals(1000.0, histogram.getMaximumMicros());
+
+		//1000ns is in the [512, 1024) bucket, so is reported as the top of that bucket.
+		assertEquals(1.024, histogram.getPercentileMicros(50.0), 0.0001);
+		assertEquals(1.024, histogram.getPercentileMicros(99.0), 0.0001);
+		assertEquals(1000.0, histogram.getPercentileMicros(100.0), 0.0001);
+	}
+}
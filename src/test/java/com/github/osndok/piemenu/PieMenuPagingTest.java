@@ -0,0 +1,90 @@
+package com.github.osndok.piemenu;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public
+class PieMenuPagingTest extends TestCase
+{
+	/**
+	 * Counts how many times it is asked for its label, which is how we know that an entry has been created for it.
+	 */
+	private static
+	class RecentFile
+	{
+		static
+		int labelsTaken;
+
+		final
+		int number;
+
+		RecentFile(int number)
+		{
+			this.number = number;
+		}
+
+		@Override
+		public
+		String toString()
+		{
+			labelsTaken++;
+			return "file-"+number+".txt";
+		}
+	}
+
+	private
+	PieMenu<RecentFile> pieMenu;
+
+	@Override
+	protected
+	void setUp()
+	{
+		final
+		List<RecentFile> recentFiles=new ArrayList<RecentFile>();
+		{
+			for (int i=0; i<5000; i++)
+			{
+				recentFiles.add(new RecentFile(i));
+			}
+		}
+
+		pieMenu=new PieMenu<RecentFile>(recentFiles);
+		pieMenu.setPageSize(5);
+	}
+
+	public
+	void testOnlyTheCurrentPageIsCreated()
+	{
+		RecentFile.labelsTaken=0;
+
+		pieMenu.renderToImage();
+		pieMenu.nextPage();
+		pieMenu.renderToImage();
+
+		assertTrue("labels taken: "+RecentFile.labelsTaken, RecentFile.labelsTaken<=4*5);
+	}
+
+	public
+	void testWedgesMapToTheCurrentPage()
+	{
+		//The first wedge is just clockwise of 12 o'clock, and the "more" wedge is just before it.
+		assertEquals(0, pieMenu.directionToIndex(1, -100));
+		assertEquals(-1, pieMenu.directionToIndex(-1, -100));
+
+		pieMenu.nextPage();
+
+		assertEquals(5, pieMenu.getPageStart());
+		assertEquals(5, pieMenu.directionToIndex(1, -100));
+
+		pieMenu.ensureIndexIsVisible(4999);
+
+		assertEquals(4995, pieMenu.getPageStart());
+
+		//...and the last page goes back around to the first.
+		pieMenu.nextPage();
+
+		assertEquals(0, pieMenu.getPageStart());
+	}
+}
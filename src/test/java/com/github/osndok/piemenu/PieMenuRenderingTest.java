@@ -0,0 +1,285 @@
+package com.github.osndok.piemenu;
+
+import junit.framework.TestCase;
+
+import javax.imageio.ImageIO;
+import javax.swing.text.Position;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders a variety of menus offscreen (headless) and compares them against the 'golden' images in
+ * src/test/resources/golden, so that layout bugs show up as test failures. The render time of each configuration is
+ * appended to target/golden/render-timings.txt, and may be bounded with -Dpie.menu.render.budget.millis=N.
+ *
+ * When a rendering changes on purpose, re-run with -Dpie.menu.golden.update=true to replace the golden images (and
+ * then review them before committing). On a mismatch, the actual image & a difference map are left in target/golden.
+ */
+public
+class PieMenuRenderingTest extends TestCase
+{
+	private static final
+	File GOLDEN_DIRECTORY = new File("src/test/resources/golden");
+
+	private static final
+	File OUTPUT_DIRECTORY = new File("target/golden");
+
+	/**
+	 * Text rendering varies a bit between JDKs & font versions, so a few pixels may differ by a few shades.
+	 */
+	private static final
+	int CHANNEL_TOLERANCE = 48;
+
+	private static final
+	double MAXIMUM_DIFFERENT_PIXELS_PERCENT = 1.0;
+
+	private static final
+	int TIMED_RENDERS = 10;
+
+	public
+	void testTwoItems() throws IOException
+	{
+		check("two-items", createMenu(2, 12, Colorizer.DISTINCT_HUES));
+	}
+
+	public
+	void testFiveItems() throws IOException
+	{
+		check("five-items", createMenu(5, 12, Colorizer.DISTINCT_HUES));
+	}
+
+	public
+	void testElevenItems() throws IOException
+	{
+		check("eleven-items", createMenu(11, 12, Colorizer.DISTINCT_HUES));
+	}
+
+	/**
+	 * Used to draw the EAST label half-way into the wedge above it.
+	 */
+	public
+	void testTwelveItems() throws IOException
+	{
+		check("twelve-items", createMenu(12, 12, Colorizer.DISTINCT_HUES));
+	}
+
+	public
+	void testGradientMultipleRings() throws IOException
+	{
+		check("forty-items-gradient", createMenu(40, 12, Colorizer.GRADIENT));
+	}
+
+	public
+	void testLabelHashLargeFont() throws IOException
+	{
+		check("eight-items-label-hash-18pt", createMenu(8, 18, Colorizer.LABEL_HASH));
+	}
+
+	public
+	void testHighlightedWedge() throws IOException
+	{
+		final
+		PieMenu<String> pieMenu=createMenu(7, 12, Colorizer.DISTINCT_HUES);
+		{
+			pieMenu.setSelectedIndex(2);
+		}
+
+		check("seven-items-highlighted", pieMenu);
+	}
+
+	public
+	void testTypeAheadFadesOtherWedges() throws IOException
+	{
+		final
+		PieMenu<String> pieMenu=createMenu(12, 12, Colorizer.DISTINCT_HUES);
+
+		assertEquals(5, pieMenu.getNextMatch("re", 0, Position.Bias.Forward));
+		assertEquals(7, pieMenu.getNextMatch("re", 8, Position.Bias.Backward));
+
+		pieMenu.setSelectedIndex(7);
+		check("twelve-items-type-ahead", pieMenu);
+	}
+
+	private static
+	PieMenu<String> createMenu(int numEntries, int fontSize, Colorizer colorizer)
+	{
+		final
+		String[] words={"Copy", "Paste", "Cut", "Select All", "Find", "Replace", "Undo", "Redo", "Open Recent File",
+			"Save", "Close", "Print..."};
+
+		final
+		List<String> entries=new ArrayList<String>(numEntries);
+		{
+			for (int i=0; i<numEntries; i++)
+			{
+				entries.add(words[i%words.length]+" "+i);
+			}
+		}
+
+		final
+		PieMenu<String> retval=new PieMenu<String>(entries);
+		{
+			retval.setFont(new Font("Dialog", Font.PLAIN, fontSize));
+			retval.setBackground(Color.WHITE);
+			retval.setColorizer(colorizer);
+		}
+
+		return retval;
+	}
+
+	private
+	void check(String name, PieMenu<String> pieMenu) throws IOException
+	{
+		final
+		long start=System.nanoTime();
+
+		final
+		BufferedImage actual=pieMenu.renderToImage();
+
+		final
+		long firstNanos=System.nanoTime()-start;
+
+		for (int i=0; i<TIMED_RENDERS; i++)
+		{
+			pieMenu.renderToImage();
+		}
+
+		final
+		long averageNanos=(System.nanoTime()-start-firstNanos)/TIMED_RENDERS;
+
+		recordTiming(name, actual, firstNanos, averageNanos);
+
+		if (Boolean.getBoolean("pie.menu.golden.update"))
+		{
+			GOLDEN_DIRECTORY.mkdirs();
+			ImageIO.write(actual, "png", new File(GOLDEN_DIRECTORY, name+".png"));
+			return;
+		}
+
+		final
+		BufferedImage golden=readGolden(name);
+
+		if (golden==null)
+		{
+			write(name+"-actual", actual);
+			fail("no golden image for '"+name+"' (see target/golden, or run with -Dpie.menu.golden.update=true)");
+		}
+
+		if (golden.getWidth()!=actual.getWidth() || golden.getHeight()!=actual.getHeight())
+		{
+			write(name+"-actual", actual);
+			fail(name+": expected "+golden.getWidth()+"x"+golden.getHeight()+" but rendered "+actual.getWidth()+"x"
+					 +actual.getHeight());
+		}
+
+		final
+		BufferedImage differences=new BufferedImage(actual.getWidth(), actual.getHeight(), BufferedImage.TYPE_INT_ARGB);
+
+		int numDifferent=0;
+
+		for (int y=0; y<actual.getHeight(); y++)
+		{
+			for (int x=0; x<actual.getWidth(); x++)
+			{
+				if (!similar(golden.getRGB(x, y), actual.getRGB(x, y)))
+				{
+					differences.setRGB(x, y, 0xFFFF0000);
+					numDifferent++;
+				}
+			}
+		}
+
+		final
+		double percentDifferent=100.0*numDifferent/(actual.getWidth()*actual.getHeight());
+
+		if (percentDifferent>MAXIMUM_DIFFERENT_PIXELS_PERCENT)
+		{
+			write(name+"-actual", actual);
+			write(name+"-differences", differences);
+			fail(String.format("%s: %.2f%% of the pixels differ from the golden image (see target/golden)", name,
+								  percentDifferent));
+		}
+
+		final
+		Long budget=Long.getLong("pie.menu.render.budget.millis");
+
+		if (budget!=null)
+		{
+			assertTrue(name+": took "+averageNanos/1000000.0+"ms to render", averageNanos<=budget*1000000);
+		}
+	}
+
+	private static
+	boolean similar(int expected, int actual)
+	{
+		for (int shift=0; shift<32; shift+=8)
+		{
+			final
+			int e=(expected>>>shift)&0xFF;
+
+			final
+			int a=(actual>>>shift)&0xFF;
+
+			if (Math.abs(e-a)>CHANNEL_TOLERANCE)
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private
+	BufferedImage readGolden(String name) throws IOException
+	{
+		final
+		InputStream in=getClass().getResourceAsStream("/golden/"+name+".png");
+
+		if (in==null)
+		{
+			return null;
+		}
+
+		try
+		{
+			return ImageIO.read(in);
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+	private static
+	void write(String name, BufferedImage image) throws IOException
+	{
+		OUTPUT_DIRECTORY.mkdirs();
+		ImageIO.write(image, "png", new File(OUTPUT_DIRECTORY, name+".png"));
+	}
+
+	private static
+	void recordTiming(String name, BufferedImage image, long firstNanos, long averageNanos) throws IOException
+	{
+		OUTPUT_DIRECTORY.mkdirs();
+
+		final
+		Writer out=new FileWriter(new File(OUTPUT_DIRECTORY, "render-timings.txt"), true);
+
+		try
+		{
+			out.write(String.format("%s\t%dx%d\tfirst=%.3fms\taverage=%.3fms%n", name, image.getWidth(),
+									   image.getHeight(), firstNanos/1000000.0, averageNanos/1000000.0));
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.github.osndok.piemenu;
+
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public
+class PieMenuRepaintTest extends TestCase
+{
+	public
+	void testMovingTheSelectionRepaintsOnlyTheTwoWedges() throws Exception
+	{
+		final
+		List<Rectangle> repainted=new ArrayList<Rectangle>();
+
+		final
+		PieMenu<String> pieMenu=new PieMenu<String>(Arrays.asList("North", "East", "South", "West", "Up"))
+		{
+			@Override
+			public
+			void repaint(long tm, int x, int y, int width, int height)
+			{
+				repainted.add(new Rectangle(x, y, width, height));
+			}
+		};
+
+		SwingUtilities.invokeAndWait(new Runnable()
+		{
+			public
+			void run()
+			{
+				pieMenu.renderToImage();
+				pieMenu.setSelectedIndex(1);
+
+				repainted.clear();
+				pieMenu.setSelectedIndex(3);
+
+				final
+				Rectangle oldBounds=pieMenu.getPieMenuEntry(1).bounds;
+
+				final
+				Rectangle newBounds=pieMenu.getPieMenuEntry(3).bounds;
+
+				final
+				Rectangle whole=new Rectangle(0, 0, pieMenu.getWidth(), pieMenu.getHeight());
+
+				assertFalse(repainted.isEmpty());
+
+				for (Rectangle rectangle : repainted)
+				{
+					assertTrue(rectangle.toString(), rectangle.equals(oldBounds) || rectangle.equals(newBounds));
+					assertFalse(rectangle.toString(), rectangle.equals(whole));
+				}
+
+				assertTrue(repainted.contains(oldBounds));
+				assertTrue(repainted.contains(newBounds));
+			}
+		});
+	}
+}
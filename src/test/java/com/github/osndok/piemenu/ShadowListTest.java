@@ -0,0 +1,112 @@
+package com.github.osndok.piemenu;
+
+import junit.framework.TestCase;
+
+import javax.swing.*;
+
+public
+class ShadowListTest extends TestCase
+{
+	private
+	DefaultListModel<String> model;
+
+	private
+	ShadowList<String> shadowList;
+
+	@Override
+	protected
+	void setUp() throws Exception
+	{
+		model=new DefaultListModel<String>();
+
+		for (String s : new String[]{"a", "b", "c", "d", "e"})
+		{
+			model.addElement(s);
+		}
+
+		shadowList=new ShadowList<String>(model);
+
+		for (int i=0; i<model.getSize(); i++)
+		{
+			shadowList.set(i, model.get(i).toUpperCase());
+		}
+	}
+
+	public
+	void testRemoveRangeSplicesOnce()
+	{
+		model.removeRange(1, 3);
+
+		assertEquals(2, shadowList.size());
+		assertEquals("A", shadowList.get(0));
+		assertEquals("E", shadowList.get(1));
+	}
+
+	public
+	void testClear()
+	{
+		model.clear();
+
+		assertEquals(0, shadowList.size());
+	}
+
+	public
+	void testIntervalAddedInsertsPlaceholders()
+	{
+		final
+		BulkListModel bulkModel=new BulkListModel();
+
+		final
+		ShadowList<String> shadow=new ShadowList<String>(bulkModel);
+		{
+			shadow.set(0, "A");
+			shadow.set(1, "B");
+		}
+
+		bulkModel.insert(1, 3);
+
+		assertEquals(5, shadow.size());
+		assertEquals("A", shadow.get(0));
+		assertNull(shadow.get(1));
+		assertNull(shadow.get(3));
+		assertEquals("B", shadow.get(4));
+	}
+
+	public
+	void testContentsChangedDiscardsRange()
+	{
+		model.set(2, "x");
+
+		assertEquals("B", shadowList.get(1));
+		assertNull(shadowList.get(2));
+		assertEquals("D", shadowList.get(3));
+	}
+
+	/**
+	 * A model that can (like Java 11's DefaultListModel.addAll) announce several new elements in one event.
+	 */
+	private static
+	class BulkListModel extends AbstractListModel<String>
+	{
+		private
+		int size=2;
+
+		public
+		int getSize()
+		{
+			return size;
+		}
+
+		public
+		String getElementAt(int i)
+		{
+			return "#"+i;
+		}
+
+		void insert(int index, int count)
+		{
+			size+=count;
+			fireIntervalAdded(this, index, index+count-1);
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package com.github.osndok.piemenu;
+
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+public
+class SharedWheelTest extends TestCase
+{
+	private static final
+	List<String> LABELS = Arrays.asList("Cut", "Copy", "Paste", "Delete", "Select All");
+
+	/**
+	 * NB: each test has labels of its own, so that its wheels cannot be shared with those of another test.
+	 */
+	private static final
+	List<String> UNDO_LABELS = Arrays.asList("Undo", "Redo", "Repeat", "Clear History");
+
+	/**
+	 * NB: wheels are identified by their layouts (which they own), rather than counted, as the registry also holds
+	 * the wheels of menus from other tests, which may be collected at any time.
+	 */
+	public
+	void testIdenticalMenusShareOneWheel()
+	{
+		final
+		PieMenu<String> a=new PieMenu<String>(LABELS);
+
+		final
+		PieMenu<String> b=new PieMenu<String>(LABELS);
+
+		a.renderToImage();
+		b.renderToImage();
+
+		final
+		PieMenuLayout shared=a.getPieMenuLayout();
+
+		assertSame(shared, b.getPieMenuLayout());
+
+		//...but a menu that looks different gets its own.
+		final
+		PieMenu<String> c=new PieMenu<String>(LABELS);
+		{
+			c.setColorizer(Colorizer.GRADIENT);
+		}
+
+		c.renderToImage();
+
+		assertNotSame(shared, c.getPieMenuLayout());
+
+		//Still in use by 'b'...
+		a.removeNotify();
+
+		final
+		PieMenu<String> d=new PieMenu<String>(LABELS);
+
+		assertSame(shared, d.getPieMenuLayout());
+
+		//...until nothing uses it.
+		b.removeNotify();
+		c.removeNotify();
+		d.removeNotify();
+
+		final
+		PieMenu<String> e=new PieMenu<String>(LABELS);
+
+		assertNotSame(shared, e.getPieMenuLayout());
+
+		e.removeNotify();
+	}
+
+	public
+	void testChangingAMenuReleasesItsOldWheel()
+	{
+		final
+		Font font=new Font("Dialog", Font.BOLD, 20);
+
+		final
+		PieMenu<String> pieMenu=new PieMenu<String>(UNDO_LABELS);
+
+		pieMenu.renderToImage();
+
+		final
+		PieMenuLayout oldLayout=pieMenu.getPieMenuLayout();
+
+		pieMenu.setFont(font);
+		pieMenu.renderToImage();
+
+		final
+		PieMenuLayout newLayout=pieMenu.getPieMenuLayout();
+
+		assertNotSame(oldLayout, newLayout);
+
+		//The old wheel is no longer registered (so is not reused), whereas the new one is.
+		final
+		PieMenu<String> other=new PieMenu<String>(UNDO_LABELS);
+
+		assertNotSame(oldLayout, other.getPieMenuLayout());
+
+		other.setFont(font);
+		assertSame(newLayout, other.getPieMenuLayout());
+
+		pieMenu.removeNotify();
+		other.removeNotify();
+	}
+
+	/**
+	 * A menu that is dropped without ever being removed from a container (or was never in one) must not pin its wheel.
+	 */
+	public
+	void testAbandonedMenuDoesNotPinItsWheel() throws Exception
+	{
+		final
+		WeakReference<PieMenuLayout> layout=renderAndAbandon();
+
+		for (int i=0; i<100 && layout.get()!=null; i++)
+		{
+			System.gc();
+			Thread.sleep(10);
+		}
+
+		assertNull(layout.get());
+	}
+
+	/**
+	 * @return the layout of the abandoned menu's wheel, which (as the wheel owns it) lives only as long as the wheel
+	 */
+	private static
+	WeakReference<PieMenuLayout> renderAndAbandon()
+	{
+		final
+		PieMenu<String> pieMenu=new PieMenu<String>(Arrays.asList("Abandoned", "Forgotten", "Lost"));
+
+		pieMenu.renderToImage();
+
+		return new WeakReference<PieMenuLayout>(pieMenu.getPieMenuLayout());
+	}
+
+	public
+	void testPrewarmedWheelIsUsedByTheFirstPaint() throws Exception
+	{
+		final
+		PieMenu<String> pieMenu=new PieMenu<String>(Arrays.asList("Open", "Save", "Save As", "Revert", "Close"));
+		{
+			//Run the background work right away, so that it will have been published once the EDT has caught up.
+			pieMenu.setSubMenuExecutor(new Executor()
+			{
+				public
+				void execute(Runnable runnable)
+				{
+					runnable.run();
+				}
+			});
+		}
+
+		SwingUtilities.invokeAndWait(new Runnable()
+		{
+			public
+			void run()
+			{
+				pieMenu.prewarm(new FontRenderContext(null, true, false));
+			}
+		});
+
+		SwingUtilities.invokeAndWait(new Runnable()
+		{
+			public
+			void run()
+			{
+				final
+				long misses=PieMenuMetrics.get().getWheelImageMisses();
+
+				pieMenu.renderToImage();
+
+				assertEquals(misses, PieMenuMetrics.get().getWheelImageMisses());
+
+				pieMenu.removeNotify();
+			}
+		});
+	}
+}
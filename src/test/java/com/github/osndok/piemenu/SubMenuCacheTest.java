@@ -0,0 +1,184 @@
+package com.github.osndok.piemenu;
+
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+public
+class SubMenuCacheTest extends TestCase
+{
+	private static final
+	ListModel<String> SUB_MENU = new DefaultListModel<String>();
+
+	public
+	void testResultsExpire() throws Exception
+	{
+		final
+		SubMenuCache subMenuCache=new SubMenuCache(TimeUnit.MILLISECONDS.toNanos(20));
+
+		assertTrue(subMenuCache.startLoading("a"));
+		assertTrue(subMenuCache.finishedLoading("a", subMenuCache.getGeneration(), SUB_MENU));
+		assertSame(SUB_MENU, subMenuCache.get("a"));
+		assertFalse(subMenuCache.startLoading("a"));
+
+		Thread.sleep(50);
+
+		assertNull(subMenuCache.get("a"));
+		assertTrue(subMenuCache.startLoading("a"));
+	}
+
+	public
+	void testExpiredResultsAreEvictedWithoutBeingLookedUp() throws Exception
+	{
+		final
+		SubMenuCache subMenuCache=new SubMenuCache(TimeUnit.MILLISECONDS.toNanos(20));
+
+		for (String value : Arrays.asList("a", "b", "c"))
+		{
+			subMenuCache.startLoading(value);
+			subMenuCache.finishedLoading(value, subMenuCache.getGeneration(), SUB_MENU);
+		}
+
+		Thread.sleep(50);
+
+		subMenuCache.startLoading("d");
+		subMenuCache.finishedLoading("d", subMenuCache.getGeneration(), SUB_MENU);
+
+		assertEquals(1, subMenuCache.size());
+	}
+
+	public
+	void testFailedLoadIsRetried()
+	{
+		final
+		SubMenuCache subMenuCache=new SubMenuCache(TimeUnit.MINUTES.toNanos(5));
+
+		assertTrue(subMenuCache.startLoading("a"));
+		assertFalse("already in progress", subMenuCache.startLoading("a"));
+
+		subMenuCache.failedLoading("a", subMenuCache.getGeneration());
+
+		assertTrue(subMenuCache.startLoading("a"));
+	}
+
+	public
+	void testHungLoadIsEventuallyRetried() throws Exception
+	{
+		final
+		SubMenuCache subMenuCache=new SubMenuCache(TimeUnit.MILLISECONDS.toNanos(20));
+
+		assertTrue(subMenuCache.startLoading("a"));
+		assertFalse(subMenuCache.startLoading("a"));
+
+		Thread.sleep(50);
+
+		assertTrue(subMenuCache.startLoading("a"));
+	}
+
+	public
+	void testStaleLoaderResultIsDiscarded()
+	{
+		final
+		SubMenuCache subMenuCache=new SubMenuCache(TimeUnit.MINUTES.toNanos(5));
+
+		final
+		int oldGeneration=subMenuCache.getGeneration();
+
+		assertTrue(subMenuCache.startLoading("a"));
+
+		//The loader is replaced while the old one is still loading 'a'... which must not block the new one.
+		subMenuCache.clear();
+		assertTrue(subMenuCache.startLoading("a"));
+
+		assertFalse(subMenuCache.finishedLoading("a", oldGeneration, SUB_MENU));
+		assertNull(subMenuCache.get("a"));
+
+		//...nor may the old one's failure let the new one's load be started twice.
+		subMenuCache.failedLoading("a", oldGeneration);
+		assertFalse(subMenuCache.startLoading("a"));
+
+		assertTrue(subMenuCache.finishedLoading("a", subMenuCache.getGeneration(), SUB_MENU));
+		assertSame(SUB_MENU, subMenuCache.get("a"));
+	}
+
+	public
+	void testHighlightedWedgeIsLoadedByTheNewLoader() throws Exception
+	{
+		final
+		List<Runnable> queued=new ArrayList<Runnable>();
+
+		final
+		List<Object> newlyLoaded=new ArrayList<Object>();
+
+		final
+		PieMenu<String> pieMenu=new PieMenu<String>(Arrays.asList("File", "Edit", "View"));
+		{
+			pieMenu.setSubMenuExecutor(new Executor()
+			{
+				public
+				void execute(Runnable runnable)
+				{
+					queued.add(runnable);
+				}
+			});
+		}
+
+		SwingUtilities.invokeAndWait(new Runnable()
+		{
+			public
+			void run()
+			{
+				pieMenu.setSubMenuLoader(new SubMenuLoader()
+				{
+					public
+					ListModel<?> loadSubMenu(Object value)
+					{
+						return SUB_MENU;
+					}
+				});
+
+				pieMenu.setSelectedIndex(1);
+				assertEquals(1, queued.size());
+
+				pieMenu.setSubMenuLoader(new SubMenuLoader()
+				{
+					public
+					ListModel<?> loadSubMenu(Object value)
+					{
+						newlyLoaded.add(value);
+						return SUB_MENU;
+					}
+				});
+
+				//The old loader's result arrives (on the EDT, later).
+				queued.remove(0).run();
+			}
+		});
+
+		SwingUtilities.invokeAndWait(new Runnable()
+		{
+			public
+			void run()
+			{
+				//...is discarded, and the highlighted wedge is asked of the new loader instead.
+				assertEquals(1, queued.size());
+				queued.remove(0).run();
+			}
+		});
+
+		SwingUtilities.invokeAndWait(new Runnable()
+		{
+			public
+			void run()
+			{
+				assertEquals(Arrays.<Object>asList("Edit"), newlyLoaded);
+				assertSame(SUB_MENU, pieMenu.getSubMenuModel(1));
+			}
+		});
+	}
+}
@@ -0,0 +1,85 @@
+package com.github.osndok.piemenu;
+
+import junit.framework.TestCase;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+public
+class TruncatedLabelTest extends TestCase
+{
+	private
+	FontMetrics fontMetrics;
+
+	@Override
+	protected
+	void setUp()
+	{
+		final
+		Graphics2D g2=new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+
+		try
+		{
+			fontMetrics=g2.getFontMetrics(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
+		}
+		finally
+		{
+			g2.dispose();
+		}
+	}
+
+	public
+	void testLongestFittingPrefix()
+	{
+		final
+		String label="Open Recent File";
+
+		for (int width=0; width<=fontMetrics.stringWidth(label)+5; width++)
+		{
+			final
+			TruncatedLabel truncatedLabel=TruncatedLabel.get(null, label, width, fontMetrics);
+
+			final
+			String text=truncatedLabel.getText();
+
+			if (!truncatedLabel.fits())
+			{
+				assertTrue(fontMetrics.stringWidth(TruncatedLabel.ELLIPSIS)>width);
+				continue;
+			}
+
+			assertTrue(text+" @ "+width, fontMetrics.stringWidth(text)<=width);
+
+			if (!text.equals(label))
+			{
+				assertTrue(text, text.endsWith(TruncatedLabel.ELLIPSIS));
+
+				final
+				String prefix=text.substring(0, text.length()-1);
+
+				assertTrue(text, label.startsWith(prefix));
+
+				//One more character would not have fit (unless it was a space, which is trimmed).
+				final
+				String longer=label.substring(0, prefix.length()+1);
+
+				if (!Character.isWhitespace(longer.charAt(longer.length()-1)))
+				{
+					assertTrue(text+" @ "+width, fontMetrics.stringWidth(longer+TruncatedLabel.ELLIPSIS)>width);
+				}
+			}
+		}
+	}
+
+	public
+	void testKeptUntilTheLabelOrWidthChanges()
+	{
+		final
+		TruncatedLabel truncatedLabel=TruncatedLabel.get(null, "Select All", 30, fontMetrics);
+
+		assertSame(truncatedLabel, TruncatedLabel.get(truncatedLabel, "Select All", 30, fontMetrics));
+		assertNotSame(truncatedLabel, TruncatedLabel.get(truncatedLabel, "Select All", 31, fontMetrics));
+		assertNotSame(truncatedLabel, TruncatedLabel.get(truncatedLabel, "Select Some", 30, fontMetrics));
+		assertEquals("Select All", TruncatedLabel.get(null, "Select All", 1000, fontMetrics).getText());
+	}
+}
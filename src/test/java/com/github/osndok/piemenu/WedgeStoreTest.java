@@ -0,0 +1,67 @@
+package com.github.osndok.piemenu;
+
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import java.awt.*;
+
+public
+class WedgeStoreTest extends TestCase
+{
+	private
+	DefaultListModel<String> model;
+
+	private
+	WedgeStore wedgeStore;
+
+	@Override
+	protected
+	void setUp() throws Exception
+	{
+		model=new DefaultListModel<String>();
+		wedgeStore=new WedgeStore(model);
+
+		//NB: more than the initial capacity, so that the arrays must grow.
+		for (int i=0; i<20; i++)
+		{
+			model.addElement("#"+i);
+			wedgeStore.setColors(i, new Color(i, 0, 0), new Color(0, i, 0));
+		}
+	}
+
+	public
+	void testRemoveRangeSplices()
+	{
+		model.removeRange(1, 3);
+
+		assertEquals(17, wedgeStore.size());
+		assertEquals(new Color(0, 0, 0).getRGB(), wedgeStore.getForegroundColor(0));
+		assertEquals(new Color(4, 0, 0).getRGB(), wedgeStore.getForegroundColor(1));
+		assertEquals(new Color(0, 19, 0).getRGB(), wedgeStore.getBackgroundColor(16));
+	}
+
+	public
+	void testInsertedWedgesAreNotColored()
+	{
+		model.add(5, "new");
+
+		assertEquals(21, wedgeStore.size());
+		assertTrue(wedgeStore.isColored(4));
+		assertFalse(wedgeStore.isColored(5));
+		assertTrue(wedgeStore.isColored(6));
+		assertEquals(new Color(5, 0, 0).getRGB(), wedgeStore.getForegroundColor(6));
+	}
+
+	public
+	void testChangedWedgesAreNotColored()
+	{
+		model.set(7, "changed");
+
+		assertFalse(wedgeStore.isColored(7));
+		assertTrue(wedgeStore.isColored(8));
+
+		wedgeStore.reset();
+
+		assertFalse(wedgeStore.isColored(8));
+	}
+}